@@ -0,0 +1,140 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes to a file on a thread of its own, so the thread producing the data doesn't wait on
+ * the disk. The producer fills a batch buffer in place; full batches are queued for the
+ * writer thread, which hands each buffer back once it is written. Only a fixed number of
+ * buffers exist, so memory stays bounded: the producer only blocks when every batch is
+ * still waiting to be written, i.e. when the disk has fallen that far behind.
+ *
+ * A write that fails is reported to the producer at its next hand-off, or at close.
+ */
+public final class AsyncBatchWriter implements Closeable {
+
+	// queued after the last batch to stop the writer thread
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	private final FileChannel channel;
+	private final BlockingQueue<ByteBuffer> full, free;
+	private final Thread writer;
+	private ByteBuffer current;
+	private volatile IOException failure;
+	private boolean closed;
+
+	/**
+	 * Starts writing at the channel's position, using the given number of buffers of
+	 * batchSize bytes each. The channel is closed along with the writer.
+	 */
+	public AsyncBatchWriter(FileChannel channel, int batchSize, int batches) {
+		if(batches < 2)
+			throw new IllegalArgumentException("Need at least 2 batches to overlap writing: " + batches);
+		this.channel = channel;
+		full = new ArrayBlockingQueue<>(batches + 1);
+		free = new ArrayBlockingQueue<>(batches);
+		for(int i = 1; i < batches; i++)
+			free.add(ByteBuffer.allocateDirect(batchSize));
+		current = ByteBuffer.allocateDirect(batchSize);
+
+		writer = new Thread(this::drain, "batch-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Returns the buffer to put the next bytes into, with room for at least the given number.
+	 * The buffer is only valid until the next call.
+	 */
+	public ByteBuffer buffer(int bytes) throws IOException {
+		if(current.remaining() < bytes) {
+			if(bytes > current.capacity())
+				throw new IllegalArgumentException(bytes + " bytes won't fit in a batch of " + current.capacity());
+			handOff();
+			current = take(free);
+		}
+		return current;
+	}
+
+	// Queues the current batch for writing
+	private void handOff() throws IOException {
+		if(failure != null)
+			throw failure;
+		current.flip();
+		put(full, current);
+		current = null;
+	}
+
+	// Runs on the writer thread: writes out batches until told to stop
+	private void drain() {
+		try {
+			for(ByteBuffer batch = full.take(); batch != END; batch = full.take()) {
+				//after a failure, keep recycling buffers so the producer never waits forever
+				if(failure == null) {
+					try {
+						while(batch.hasRemaining())
+							channel.write(batch);
+					} catch(IOException e) {
+						failure = e;
+					}
+				}
+				batch.clear();
+				free.put(batch);
+			}
+		} catch(InterruptedException e) {
+			failure = new InterruptedIOException("Batch writer interrupted");
+		}
+	}
+
+	/**
+	 * Writes out everything given so far, waits for the writer thread to finish and closes the
+	 * channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+		closed = true;
+		try {
+			if(current != null && current.position() > 0) {
+				current.flip();
+				put(full, current);
+			}
+			put(full, END);
+			try {
+				writer.join();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for the batch writer");
+			}
+			if(failure != null)
+				throw failure;
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static ByteBuffer take(BlockingQueue<ByteBuffer> queue) throws IOException {
+		try {
+			return queue.take();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for a free batch");
+		}
+	}
+
+	private static void put(BlockingQueue<ByteBuffer> queue, ByteBuffer batch) throws IOException {
+		try {
+			queue.put(batch);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted queueing a batch");
+		}
+	}
+}
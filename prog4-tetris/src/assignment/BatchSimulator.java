@@ -0,0 +1,92 @@
+package assignment;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent headless games at once, one task per game on a fixed pool of threads,
+ * and gathers their results into a BatchStats. Every game gets a fresh brain and its own seed,
+ * and the seeds are drawn up front from the batch seed, so a batch is reproducible no matter
+ * how many threads run it or in what order the games finish.
+ */
+public class BatchSimulator {
+
+    private static final int HISTOGRAM_BUCKETS = 20;
+
+    private final Supplier<Brain> brains;
+    private final int threads;
+    private final Randomizer randomizer;
+
+    /**
+     * Creates a simulator that builds a new brain for each game from the supplier and runs
+     * games on the given number of threads.
+     */
+    public BatchSimulator(Supplier<Brain> brains, int threads) {
+        this(brains, threads, Randomizer.UNIFORM);
+    }
+
+    /**
+     * Creates a simulator like BatchSimulator(brains, threads) whose games draw their pieces
+     * with the given randomizer.
+     */
+    public BatchSimulator(Supplier<Brain> brains, int threads, Randomizer randomizer) {
+        if(threads < 1)
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        this.brains = brains;
+        this.threads = threads;
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * Plays the given number of games, each stopped at maxPieces if it hasn't ended already,
+     * and returns the combined stats once they have all finished.
+     */
+    public BatchStats run(int games, long seed, int maxPieces) {
+        //game i always gets the i-th seed of the stream, whichever thread plays it
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] gameSeeds = new long[games];
+        for(int i = 0; i < games; i++)
+            gameSeeds[i] = seeds.nextLong();
+
+        BatchStats stats = new BatchStats(maxPieces, HISTOGRAM_BUCKETS);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> results = new ArrayList<>(games);
+            for(long gameSeed : gameSeeds)
+                results.add(pool.submit(() -> stats.add(new HeadlessTetris(brains.get(), randomizer, gameSeed).run(maxPieces))));
+            for(Future<?> result : results)
+                result.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch interrupted", e);
+        } catch(ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        stats.setWallNanos(System.nanoTime() - start);
+        return stats;
+    }
+
+    /**
+     * Plays a batch of CheeseBrain games and prints the stats.
+     * Arguments (all optional): number of games, threads, batch seed, piece limit per game,
+     * randomizer (UNIFORM or SEVEN_BAG).
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int maxPieces = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+        Randomizer randomizer = args.length > 4 ? Randomizer.valueOf(args[4]) : Randomizer.UNIFORM;
+
+        System.out.println(new BatchSimulator(CheeseBrain::new, threads, randomizer).run(games, seed, maxPieces));
+    }
+}
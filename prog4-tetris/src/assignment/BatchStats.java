@@ -0,0 +1,144 @@
+package assignment;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals and distributions over a batch of headless games. Games running on different
+ * threads can add their results at the same time; nothing here takes a lock.
+ */
+public final class BatchStats {
+
+	private final LongAdder games = new LongAdder();
+	private final LongAdder toppedOut = new LongAdder();
+	private final LongAdder pieces = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder moves = new LongAdder();
+	private final LongAdder gameNanos = new LongAdder();
+	private final LongAccumulator minPieces = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator maxPieces = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	private final Histogram pieceHistogram, rowHistogram;
+	private volatile long wallNanos;
+
+	// Counts values into equal-width buckets; anything past the last bucket goes into it
+	private static final class Histogram {
+		final int bucketWidth;
+		final AtomicLongArray counts;
+
+		Histogram(int bucketWidth, int buckets) {
+			this.bucketWidth = bucketWidth;
+			this.counts = new AtomicLongArray(buckets);
+		}
+
+		void add(long value) {
+			counts.incrementAndGet((int) Math.min(value / bucketWidth, counts.length() - 1));
+		}
+
+		String format(String label) {
+			StringBuilder out = new StringBuilder(label).append(':');
+			for(int i = 0; i < counts.length(); i++) {
+				long count = counts.get(i);
+				if(count > 0)
+					out.append(String.format("%n  %6d+ %d", (long) i * bucketWidth, count));
+			}
+			return out.toString();
+		}
+	}
+
+	/**
+	 * Creates empty stats; the histograms are spread evenly over [0, maxPieces] pieces
+	 * (and the rows those pieces could clear) in the given number of buckets.
+	 */
+	BatchStats(int maxPieces, int buckets) {
+		int pieceWidth = Math.max(1, (maxPieces + buckets - 1) / buckets);
+		//each piece fills 4 cells, so it can't clear more than 4/width rows on average
+		int rowWidth = Math.max(1, (maxPieces * 4 / Playfield.WIDTH + buckets - 1) / buckets);
+		pieceHistogram = new Histogram(pieceWidth, buckets + 1);
+		rowHistogram = new Histogram(rowWidth, buckets + 1);
+	}
+
+	void add(GameResult result) {
+		games.increment();
+		if(result.isToppedOut())
+			toppedOut.increment();
+		pieces.add(result.getPieces());
+		rows.add(result.getRowsCleared());
+		moves.add(result.getMoves());
+		gameNanos.add(result.getWallNanos());
+		minPieces.accumulate(result.getPieces());
+		maxPieces.accumulate(result.getPieces());
+		pieceHistogram.add(result.getPieces());
+		rowHistogram.add(result.getRowsCleared());
+	}
+
+	void setWallNanos(long wallNanos) {
+		this.wallNanos = wallNanos;
+	}
+
+	public long getGames() {
+		return games.sum();
+	}
+
+	/**
+	 * Returns how many games ended by topping out rather than at the piece limit.
+	 */
+	public long getToppedOut() {
+		return toppedOut.sum();
+	}
+
+	public double getMeanPieces() {
+		long n = games.sum();
+		return n == 0 ? 0 : pieces.sum() / (double) n;
+	}
+
+	public double getMeanRowsCleared() {
+		long n = games.sum();
+		return n == 0 ? 0 : rows.sum() / (double) n;
+	}
+
+	public long getMinPieces() {
+		return games.sum() == 0 ? 0 : minPieces.get();
+	}
+
+	public long getMaxPieces() {
+		return games.sum() == 0 ? 0 : maxPieces.get();
+	}
+
+	public long getMoves() {
+		return moves.sum();
+	}
+
+	/**
+	 * Returns brain decisions per second of a single game's thread, over all games.
+	 */
+	public double getDecisionsPerSecond() {
+		long nanos = gameNanos.sum();
+		return nanos == 0 ? 0 : moves.sum() * 1e9 / nanos;
+	}
+
+	/**
+	 * Returns brain decisions per second of wall time for the whole batch, across all threads.
+	 */
+	public double getBatchDecisionsPerSecond() {
+		return wallNanos == 0 ? 0 : moves.sum() * 1e9 / wallNanos;
+	}
+
+	/**
+	 * Returns the wall time the whole batch took, in nanoseconds.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d games (%d topped out) in %.2f s%n", getGames(), getToppedOut(), wallNanos / 1e9)
+				+ String.format("pieces: mean %.1f, min %d, max %d%n", getMeanPieces(), getMinPieces(), getMaxPieces())
+				+ String.format("rows cleared: mean %.1f%n", getMeanRowsCleared())
+				+ String.format("decisions/s: %.0f per game thread, %.0f overall%n", getDecisionsPerSecond(),
+						getBatchDecisionsPerSecond())
+				+ pieceHistogram.format("pieces survived") + String.format("%n")
+				+ rowHistogram.format("rows cleared");
+	}
+}
@@ -0,0 +1,255 @@
+package assignment;
+
+import java.awt.Point;
+import java.util.*;
+
+/**
+ * A brain that looks ahead through the preview pieces with a beam search. Each ply places one
+ * piece on every board kept from the last ply, scores the results with CheeseBrain's
+ * evaluation, and keeps only the best few. The move returned is the first step towards the
+ * placement of the current piece that led to the best board at the final ply.
+ *
+ * Given a time budget, the brain searches one ply deeper at a time until the budget runs out
+ * and goes with the deepest search it finished, so a slow machine costs lookahead rather than
+ * time. The depth reached and whether the budget ran out are recorded for every decision.
+ */
+public class BeamBrain implements Brain {
+
+    private final int beamWidth, depth;
+    private final long budgetNanos;    // 0 for no time limit
+    private final CheeseBrain evaluator = new CheeseBrain();
+    private final List<Piece> preview = new ArrayList<>();
+
+    //the actions still to play for the current piece
+    private Plan plan;
+
+    //how the searches have gone so far
+    private int lastDepth;
+    private boolean lastTimedOut;
+    private long decisions, timeouts, totalDepth;
+
+    // A board kept in the beam, and which placement of the current piece it came from
+    private static class Node {
+        final Board board;
+        final int root;
+
+        Node(Board board, int root) {
+            this.board = board;
+            this.root = root;
+        }
+    }
+
+    // A placement that has been scored but not yet played onto its own board
+    private static class Candidate {
+        final Node parent;
+        final Placement placement;
+        final int root;
+        final double score;
+
+        Candidate(Node parent, Placement placement, int root, double score) {
+            this.parent = parent;
+            this.placement = placement;
+            this.root = root;
+            this.score = score;
+        }
+    }
+
+    public BeamBrain() {
+        this(4, 2);
+    }
+
+    /**
+     * Creates a brain that keeps beamWidth boards per ply and searches depth plies: the
+     * current piece plus up to depth-1 pieces of the preview.
+     */
+    public BeamBrain(int beamWidth, int depth) {
+        this(beamWidth, depth, 0);
+    }
+
+    /**
+     * Creates a brain like BeamBrain(beamWidth, depth) that spends at most about budgetNanos
+     * searching for each piece, or any amount of time if budgetNanos is 0. The first ply is
+     * always at least partly scored, so one placement is checked however small the budget.
+     */
+    public BeamBrain(int beamWidth, int depth, long budgetNanos) {
+        if(beamWidth < 1 || depth < 1)
+            throw new IllegalArgumentException("Beam width and depth must be positive");
+        if(budgetNanos < 0)
+            throw new IllegalArgumentException("Time budget can't be negative: " + budgetNanos);
+        this.beamWidth = beamWidth;
+        this.depth = depth;
+        this.budgetNanos = budgetNanos;
+    }
+
+    @Override
+    public void setPreview(List<Piece> upcoming) {
+        preview.clear();
+        preview.addAll(upcoming);
+    }
+
+    /**
+     * Decide what the next move should be based on the state of the board.
+     */
+    public Board.Action nextMove(Board currentBoard) {
+        Piece piece = currentBoard.getCurrentPiece();
+        if(piece == null) {
+            plan = null;
+            return Board.Action.NOTHING;
+        }
+
+        // Keep following the plan for this piece while the board is where we expect it
+        if(plan != null) {
+            Board.Action planned = plan.next(currentBoard);
+            if(planned != null) return planned;
+        }
+
+        //search the board as the next move leaves it, with any rows the last placement filled cleared
+        Board cleared = currentBoard.testMove(Board.Action.NOTHING);
+        List<Placement> placements = cleared.legalPlacements(piece, cleared.getCurrentPiecePosition());
+        if(placements.isEmpty()) return Board.Action.DROP;
+
+        //without a budget go straight to full depth; with one, deepen a ply at a time
+        long deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : Long.MAX_VALUE;
+        int maxPlies = Math.min(depth, preview.size() + 1);
+        int best = -1, reached = 0;
+        boolean timedOut = false;
+        for(int plies = budgetNanos > 0 ? 1 : maxPlies; plies <= maxPlies; plies++) {
+            int root = search(cleared, placements, plies, deadline);
+            if(root < 0) {
+                //if nothing finished, go with the best placement that was scored in time
+                if(best < 0)
+                    best = -root - 1;
+                timedOut = true;
+                break;
+            }
+            best = root;
+            reached = plies;
+            if(System.nanoTime() > deadline) {
+                timedOut = plies < maxPlies;
+                break;
+            }
+        }
+
+        lastDepth = reached;
+        lastTimedOut = timedOut;
+        decisions++;
+        totalDepth += reached;
+        if(timedOut)
+            timeouts++;
+
+        // Commit to the whole path to the best Board and return its first move
+        plan = new Plan(currentBoard, placements.get(best).getActions());
+        return plan.next(currentBoard);
+    }
+
+    /*
+     * Runs the beam search to the given number of plies and returns the placement of the current
+     * piece that leads to the best board, starting from the given copy of the real board. If the
+     * deadline passes first, returns -(i+1), where i is the best placement scored in the first ply
+     * so far.
+     */
+    private int search(Board start, List<Placement> placements, int plies, long deadline) {
+        //the first ply comes from the real board; each placement is its own root
+        List<Candidate> candidates = new ArrayList<>();
+        Board scratch = start.testMove(Board.Action.NOTHING);
+        for(int i = 0; i < placements.size(); i++) {
+            if(i > 0 && System.nanoTime() > deadline)
+                return -prune(candidates).get(0).root - 1;
+            candidates.add(new Candidate(null, placements.get(i), i, score(scratch, placements.get(i))));
+        }
+        List<Candidate> beam = prune(candidates);
+
+        for(int ply = 1; ply < plies; ply++) {
+            Piece next = preview.get(ply - 1);
+            candidates = new ArrayList<>();
+            for(Candidate survivor : beam) {
+                Node node = expand(start, survivor);
+                //spawn the way the game does, just below the rows it keeps above the playfield
+                Point spawn = new Point(node.board.getWidth() / 2 - next.getWidth() / 2,
+                        node.board.getHeight() - Playfield.TOP_SPACE);
+                try {
+                    node.board.nextPiece(next, spawn);
+                } catch(IllegalArgumentException e) {
+                    //the game would end here, so nothing follows this board
+                    continue;
+                }
+                Board nodeScratch = node.board.testMove(Board.Action.NOTHING);
+                for(Placement placement : node.board.legalPlacements(next, spawn)) {
+                    if(System.nanoTime() > deadline)
+                        return -1;
+                    candidates.add(new Candidate(node, placement, node.root, score(nodeScratch, placement)));
+                }
+            }
+            //every line of play ends the game; settle for the best board from the last ply
+            if(candidates.isEmpty())
+                break;
+            beam = prune(candidates);
+        }
+        return beam.get(0).root;
+    }
+
+    /**
+     * Returns how many plies the last search finished; 0 if it ran out of time in the first.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Returns true if the last search ran out of time before reaching its full depth.
+     */
+    public boolean lastTimedOut() {
+        return lastTimedOut;
+    }
+
+    /**
+     * Returns how many searches this brain has made; replayed moves don't count.
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Returns how many searches ran out of time before reaching their full depth.
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Returns the average number of plies the searches finished.
+     */
+    public double getMeanDepth() {
+        return decisions == 0 ? 0 : totalDepth / (double) decisions;
+    }
+
+    // Plays the placement onto the scratch board, scores it, and rolls the board back
+    private double score(Board scratch, Placement placement) {
+        play(scratch, placement);
+        double score = evaluator.scoreBoard(scratch);
+        for(int j = 0; j <= placement.getActions().size(); j++)
+            scratch.undo();
+        return score;
+    }
+
+    // Plays a placement, then one more move so any rows it filled are cleared
+    private void play(Board board, Placement placement) {
+        for(Board.Action act : placement.getActions())
+            board.move(act);
+        board.move(Board.Action.NOTHING);
+    }
+
+    // Builds the board a surviving candidate leads to
+    private Node expand(Board start, Candidate candidate) {
+        Board parent = candidate.parent == null ? start : candidate.parent.board;
+        Board board = parent.testMove(Board.Action.NOTHING);
+        play(board, candidate.placement);
+        return new Node(board, candidate.root);
+    }
+
+    // Keeps the best beamWidth candidates; the sort is stable, so ties keep enumeration order
+    private List<Candidate> prune(List<Candidate> candidates) {
+        candidates.sort(Comparator.comparingDouble(c -> c.score));
+        return new ArrayList<>(candidates.subList(0, Math.min(beamWidth, candidates.size())));
+    }
+}
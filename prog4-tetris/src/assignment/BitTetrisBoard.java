@@ -0,0 +1,631 @@
+package assignment;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Tetris board backed by one occupancy bitmask per row (bit x set means column x is filled),
+ * with the piece types kept alongside purely for rendering. Collision checks, full-row detection
+ * and drops become a handful of mask ANDs per row instead of a grid lookup per cell.
+ *
+ * Behaves exactly like TetrisBoard, so it can be swapped in wherever a TetrisBoard is constructed.
+ * Boards may be at most 32 columns wide.
+ */
+public final class BitTetrisBoard implements Board {
+
+	private static final int MAX_WIDTH = 32;
+
+	private int[] rows;
+	private Piece.PieceType[][] types;
+	private Piece curPiece;
+	private int curX, curY;
+	private int width, height, fullRow, rowClearCnt, maxHeight;
+	private int[] heights;
+	private Action lastAction;
+	private Result lastResult;
+	// Zobrist hash of the grid and current piece
+	private long hash;
+	// hash of each row's cells, kept so moving a row only has to re-mix its hash
+	private long[] rowHashes;
+	// null until a listener is added; copies never share it
+	private BoardListeners listeners;
+	// which entry of the kick table the last successful rotation used
+	private int kick;
+
+	// rows filled by the most recent placement; like TetrisBoard, these are only cleared on the following move
+	private int[] justFilled = new int[4];
+	private int justFilledCnt;
+
+	// undo history; copies start with an empty one
+	private final MoveJournal journal = new MoveJournal();
+
+	public BitTetrisBoard(int width, int height) {
+		if(width > MAX_WIDTH)
+			throw new IllegalArgumentException("Board width must be at most " + MAX_WIDTH);
+		this.width = width;
+		this.height = height;
+		this.fullRow = width == MAX_WIDTH ? -1 : (1 << width) - 1;
+		rows = new int[height];
+		types = new Piece.PieceType[height][width];
+		heights = new int[width];
+		rowHashes = new long[height];
+	}
+
+	// Copies the information of an entire board
+	private BitTetrisBoard(BitTetrisBoard copy) {
+		width = copy.width;
+		height = copy.height;
+		fullRow = copy.fullRow;
+		rowClearCnt = copy.rowClearCnt;
+		curPiece = copy.curPiece;
+		curX = copy.curX;
+		curY = copy.curY;
+		lastAction = copy.lastAction;
+		lastResult = copy.lastResult;
+		maxHeight = copy.maxHeight;
+		hash = copy.hash;
+		rowHashes = Arrays.copyOf(copy.rowHashes, height);
+
+		rows = Arrays.copyOf(copy.rows, height);
+		types = new Piece.PieceType[height][];
+		for(int y = 0; y < height; y++)
+			types[y] = Arrays.copyOf(copy.types[y], width);
+		heights = Arrays.copyOf(copy.heights, width);
+		justFilled = Arrays.copyOf(copy.justFilled, justFilled.length);
+		justFilledCnt = copy.justFilledCnt;
+	}
+
+	// Checks if a given piece with its bounding box at (x, y) will collide with anything
+	private boolean checkPieceCollision(Piece piece, int x, int y) {
+		int[] masks = piece.getRowMasks();
+		for(int i = 0; i < masks.length; i++) {
+			int mask = masks[i];
+			if(mask == 0)
+				continue;
+			int row = y + i;
+			if(row < 0 || row >= height)
+				return true;
+
+			//bits that would be shifted past either wall are out of bounds
+			if(x < 0) {
+				if(-x >= MAX_WIDTH || (mask & ((1 << -x) - 1)) != 0)
+					return true;
+				mask >>>= -x;
+			} else {
+				if(x >= MAX_WIDTH || (mask & ~(fullRow >>> x)) != 0)
+					return true;
+				mask <<= x;
+			}
+			if((rows[row] & mask) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	// Finds the row a hard drop lands the current piece on, straight from the column heights
+	private int dropRow() {
+		int[] skirt = curPiece.getSkirt();
+		int row = Integer.MIN_VALUE;
+		for(int i = 0; i < skirt.length; i++) {
+			if(skirt[i] == Integer.MAX_VALUE)
+				continue;
+			//the piece is tucked under an overhang here, so fall back to scanning down
+			if(curY + skirt[i] < heights[curX + i]) {
+				int y = curY;
+				while(!checkPieceCollision(curPiece, curX, y - 1))
+					y--;
+				return y;
+			}
+			row = Math.max(row, heights[curX + i] - skirt[i]);
+		}
+		return row;
+	}
+
+	// Gets kick tables as provided by Piece interface
+	private static Point[] getClockwiseKickTable(Piece p) {
+		if(p.getType() == Piece.PieceType.STICK)
+			return Piece.I_CLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+
+		return Piece.NORMAL_CLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+	}
+	private static Point[] getCounterclockwiseKickTable(Piece p) {
+		if(p.getType() == Piece.PieceType.STICK)
+			return Piece.I_COUNTERCLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+
+		return Piece.NORMAL_COUNTERCLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+	}
+
+	// Tries each kick in turn, keeping the first one that fits
+	private Result rotate(Piece rotated, Point[] kicks) {
+		for(int i = 0; i < kicks.length; i++) {
+			Point p = kicks[i];
+			if(!checkPieceCollision(rotated, curX + p.x, curY + p.y)) {
+				curPiece = rotated;
+				curX += p.x;
+				curY += p.y;
+				kick = i;
+				return Result.SUCCESS;
+			}
+		}
+		return Result.OUT_BOUNDS;
+	}
+
+	// Starts a new journal record holding everything a move or nextPiece may overwrite
+	private void record(int kind) {
+		journal.record(kind, curPiece, curX, curY, hash, rowClearCnt, maxHeight, justFilled, justFilledCnt,
+				lastAction, lastResult);
+	}
+
+	// Puts rows removed by clearLines back, given the record that removed them
+	private void restoreLines() {
+		int cleared = journal.clearedCount();
+
+		//replay clearLines' swaps in reverse, moving the surviving rows back up
+		for(int y = height - 1; y >= 0; y--) {
+			int shiftY = 0;
+			boolean wasCleared = false;
+			for(int i = 0; i < cleared; i++) {
+				int clearedY = journal.clearedRow(i);
+				if(clearedY < y) shiftY++;
+				else if(clearedY == y) wasCleared = true;
+			}
+			if(wasCleared || shiftY == 0)
+				continue;
+			int mask = rows[y];
+			rows[y] = rows[y - shiftY];
+			rows[y - shiftY] = mask;
+			Piece.PieceType[] row = types[y];
+			types[y] = types[y - shiftY];
+			types[y - shiftY] = row;
+			long rowHash = rowHashes[y];
+			rowHashes[y] = rowHashes[y - shiftY];
+			rowHashes[y - shiftY] = rowHash;
+		}
+
+		//the empty rows are now where the cleared ones were
+		for(int i = 0; i < cleared; i++) {
+			int y = journal.clearedRow(i);
+			rows[y] = fullRow;
+			types[y] = (Piece.PieceType[]) journal.clearedRowData(i);
+			rowHashes[y] = Zobrist.rowHash(this, y);
+		}
+	}
+
+	// Removes every full row that was not filled by the current move, shifting the rest down
+	private void clearLines() {
+		//how far to shift each line
+		int shiftY = 0;
+		for(int y = 0; y < height; y++) {
+			int filledIndex = justFilledIndex(y);
+			if(rows[y] == fullRow && filledIndex < 0) {
+				//keep the row's types for undo, leaving a fresh array in its place
+				journal.cleared(y, types[y]);
+				types[y] = new Piece.PieceType[width];
+				hash ^= Zobrist.row(rowHashes[y], y);
+
+				shiftY++;
+				rowClearCnt++;
+			} else if(shiftY > 0) {
+				//shift row down, swapping the type row so the vacated one can be reused
+				rows[y - shiftY] = rows[y];
+				Piece.PieceType[] row = types[y - shiftY];
+				types[y - shiftY] = types[y];
+				types[y] = row;
+				hash ^= Zobrist.row(rowHashes[y], y) ^ Zobrist.row(rowHashes[y], y - shiftY);
+				rowHashes[y - shiftY] = rowHashes[y];
+				if(filledIndex >= 0)
+					justFilled[filledIndex] = y - shiftY;
+			}
+		}
+		if(shiftY == 0)
+			return;
+
+		//the vacated rows at the top are now empty
+		for(int y = height - shiftY; y < height; y++) {
+			rows[y] = 0;
+			Arrays.fill(types[y], null);
+			rowHashes[y] = 0;
+		}
+		updateHeights();
+	}
+
+	// Returns where y sits in justFilled, or -1 if the current move did not fill it
+	private int justFilledIndex(int y) {
+		for(int i = 0; i < justFilledCnt; i++)
+			if(justFilled[i] == y)
+				return i;
+		return -1;
+	}
+
+	// Recomputes every column height (and the max height) from the row masks
+	private void updateHeights() {
+		int remaining = fullRow;
+		Arrays.fill(heights, 0);
+		maxHeight = 0;
+		for(int y = height - 1; y >= 0 && remaining != 0; y--) {
+			int found = rows[y] & remaining;
+			if(found == 0)
+				continue;
+			if(maxHeight == 0)
+				maxHeight = y + 1;
+			remaining &= ~found;
+			while(found != 0) {
+				heights[Integer.numberOfTrailingZeros(found)] = y + 1;
+				found &= found - 1;
+			}
+		}
+	}
+
+	private void placePiece() {
+		journal.placed(curX, curY);
+
+		int[] masks = curPiece.getRowMasks();
+		Piece.PieceType type = curPiece.getType();
+		for(Point p : curPiece.getBody()) {
+			int y = curY + p.y;
+			types[y][curX + p.x] = type;
+			hash ^= Zobrist.row(rowHashes[y], y);
+			rowHashes[y] ^= Zobrist.cell(curX + p.x, type);
+			hash ^= Zobrist.row(rowHashes[y], y);
+		}
+
+		for(int i = 0; i < masks.length; i++) {
+			if(masks[i] == 0)
+				continue;
+			int y = curY + i;
+			rows[y] |= curX < 0 ? masks[i] >>> -curX : masks[i] << curX;
+			if(rows[y] == fullRow)
+				justFilled[justFilledCnt++] = y;
+		}
+
+		//only the touched columns can have grown
+		for(Point p : curPiece.getBody()) {
+			int x = curX + p.x, y = curY + p.y;
+			if(heights[x] <= y)
+				heights[x] = y + 1;
+			if(maxHeight <= y)
+				maxHeight = y + 1;
+		}
+		curPiece = null;
+	}
+
+	@Override
+	public Result move(Action act) {
+		record(MoveJournal.KIND_MOVE);
+
+		//take the piece out of the hash; it goes back in wherever it ends up
+		if(curPiece != null)
+			hash ^= Zobrist.piece(curPiece, curX, curY);
+
+		//rows filled by the previous move are now eligible for clearing
+		int pending = justFilledCnt;
+		justFilledCnt = 0;
+
+		Result res;
+		if(curPiece == null)
+			res = Result.NO_PIECE;
+		else {
+			switch(act) {
+			case CLOCKWISE:
+				res = rotate(curPiece.clockwisePiece(), getClockwiseKickTable(curPiece));
+				break;
+
+			case COUNTERCLOCKWISE:
+				res = rotate(curPiece.counterclockwisePiece(), getCounterclockwiseKickTable(curPiece));
+				break;
+
+			case LEFT:
+				if(checkPieceCollision(curPiece, curX - 1, curY))
+					res = Result.OUT_BOUNDS;
+				else {
+					curX--;
+					res = Result.SUCCESS;
+				}
+				break;
+
+			case RIGHT:
+				if(checkPieceCollision(curPiece, curX + 1, curY))
+					res = Result.OUT_BOUNDS;
+				else {
+					curX++;
+					res = Result.SUCCESS;
+				}
+				break;
+
+			case DOWN:
+				if(checkPieceCollision(curPiece, curX, curY - 1)) {
+					placePiece();
+					res = Result.PLACE;
+				} else {
+					curY--;
+					res = Result.SUCCESS;
+				}
+				break;
+
+			case DROP:
+				curY = dropRow();
+				placePiece();
+				res = Result.SUCCESS;
+				break;
+
+			case NOTHING:
+				res = Result.SUCCESS;
+				break;
+
+			//provide error message when an unknown action occurs
+			default:
+				System.err.println("Action " + act + " not supported.");
+				res = Result.SUCCESS;
+			}
+		}
+
+		if(pending > 0)
+			clearLines();
+
+		if(curPiece != null)
+			hash ^= Zobrist.piece(curPiece, curX, curY);
+
+		lastAction = act;
+		lastResult = res;
+
+		//tell the listeners, now that the board is consistent again
+		if(listeners != null)
+			listeners.moved(this, journal, act, res, curPiece, curX, curY, kick);
+		return res;
+	}
+
+	@Override
+	public Board testMove(Action act) {
+		Board newBoard = new BitTetrisBoard(this);
+		newBoard.move(act);
+		return newBoard;
+	}
+
+	@Override
+	public void undo() {
+		journal.pop();
+		int kind = journal.kind();
+		Piece piece = journal.piece();
+
+		if(kind != MoveJournal.KIND_NEXT_PIECE) {
+			if(journal.clearedCount() > 0)
+				restoreLines();
+
+			//take the placed piece back off the grid
+			if(kind == MoveJournal.KIND_PLACE) {
+				int placeX = journal.placeX(), placeY = journal.placeY();
+				int[] masks = piece.getRowMasks();
+				for(int i = 0; i < masks.length; i++)
+					if(masks[i] != 0)
+						rows[placeY + i] &= ~(placeX < 0 ? masks[i] >>> -placeX : masks[i] << placeX);
+				for(Point p : piece.getBody()) {
+					types[placeY + p.y][placeX + p.x] = null;
+					rowHashes[placeY + p.y] ^= Zobrist.cell(placeX + p.x, piece.getType());
+				}
+			}
+			if(kind == MoveJournal.KIND_PLACE || journal.clearedCount() > 0)
+				updateHeights();
+
+			rowClearCnt = journal.rowsCleared();
+			justFilledCnt = journal.justFilled(justFilled);
+			lastAction = journal.lastAction();
+			lastResult = journal.lastResult();
+		}
+
+		curPiece = piece;
+		curX = journal.x();
+		curY = journal.y();
+		hash = journal.hash();
+		journal.release();
+		if(listeners != null)
+			listeners.undone(this);
+	}
+
+	@Override
+	public void addBoardListener(BoardListener listener) {
+		listeners = BoardListeners.add(listeners, listener);
+	}
+
+	@Override
+	public void removeBoardListener(BoardListener listener) {
+		BoardListeners.remove(listeners, listener);
+	}
+
+	@Override
+	public List<Placement> legalPlacements(Piece piece, Point start) {
+		return PlacementSearch.search(width, height, piece, start, this::checkPieceCollision);
+	}
+
+	@Override
+	public Piece getCurrentPiece() {
+		return curPiece;
+	}
+
+	@Override
+	public Point getCurrentPiecePosition() {
+		if(curPiece == null)
+			return null;
+		return new Point(curX, curY);
+	}
+
+	@Override
+	public void nextPiece(Piece p, Point spawnPosition) {
+		if(checkPieceCollision(p, spawnPosition.x, spawnPosition.y)) {
+			if(listeners != null)
+				listeners.gameOver(this);
+			throw new IllegalArgumentException("Piece could not be spawned");
+		}
+
+		record(MoveJournal.KIND_NEXT_PIECE);
+		if(curPiece != null)
+			hash ^= Zobrist.piece(curPiece, curX, curY);
+		curPiece = p;
+		curX = spawnPosition.x;
+		curY = spawnPosition.y;
+		hash ^= Zobrist.piece(curPiece, curX, curY);
+		if(listeners != null)
+			listeners.pieceSpawned(this, curPiece, curX, curY);
+	}
+
+	@Override
+	public void restore(Piece.PieceType[][] grid, Piece piece, Point position, int rowsCleared) {
+		if(grid.length != height)
+			throw new IllegalArgumentException("Grid has " + grid.length + " rows, not " + height);
+		int full = 0;
+		for(Piece.PieceType[] row : grid) {
+			if(row.length != width)
+				throw new IllegalArgumentException("Grid row has " + row.length + " cells, not " + width);
+			if(rowMask(row) == fullRow)
+				full++;
+		}
+		if(full > justFilled.length)
+			throw new IllegalArgumentException("Grid has " + full + " full rows");
+		//check the piece against the new grid before anything changes, so a bad state leaves the board as it was
+		if(piece != null) {
+			for(Point p : piece.getBody()) {
+				int x = position.x + p.x, y = position.y + p.y;
+				if(x < 0 || x >= width || y < 0 || y >= height || grid[y][x] != null)
+					throw new IllegalArgumentException("Piece collides with the grid");
+			}
+		}
+
+		for(int y = 0; y < height; y++) {
+			rows[y] = rowMask(grid[y]);
+			System.arraycopy(grid[y], 0, types[y], 0, width);
+		}
+		updateHeights();
+
+		//full rows are left for the next move to clear
+		justFilledCnt = 0;
+		for(int y = 0; y < height; y++)
+			if(rows[y] == fullRow)
+				justFilled[justFilledCnt++] = y;
+
+		curPiece = piece;
+		if(piece != null) {
+			curX = position.x;
+			curY = position.y;
+		}
+		rowClearCnt = rowsCleared;
+		lastAction = null;
+		lastResult = null;
+		for(int y = 0; y < height; y++)
+			rowHashes[y] = Zobrist.rowHash(this, y);
+		hash = Zobrist.of(this);
+
+		//nothing before this state can be undone
+		journal.clear();
+	}
+
+	// Returns the occupancy mask of a row of types
+	private static int rowMask(Piece.PieceType[] row) {
+		int mask = 0;
+		for(int x = 0; x < row.length; x++)
+			if(row[x] != null)
+				mask |= 1 << x;
+		return mask;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		//must be a board
+		if(!(other instanceof Board)) return false;
+
+		//differing hashes can never be equal boards
+		Board b = (Board) other;
+		if(b.getZobristHash() != hash) return false;
+
+		//compare current piece
+		if(curPiece == null) {
+			if(b.getCurrentPiece() != null) return false;
+		} else {
+			if(!curPiece.equals(b.getCurrentPiece())) return false;
+
+			//compare current piece position
+			Point otherPos = b.getCurrentPiecePosition();
+			if(otherPos == null || otherPos.x != curX || otherPos.y != curY) return false;
+		}
+
+		//compare dimensions
+		if(b.getWidth() != getWidth()) return false;
+		if(b.getHeight() != getHeight()) return false;
+
+		//occupancy can be compared a row at a time against another bitboard
+		if(b instanceof BitTetrisBoard && !Arrays.equals(rows, ((BitTetrisBoard) b).rows)) return false;
+
+		//compare items in the grid
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				if(getGrid(x, y) != b.getGrid(x, y)) return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public long getZobristHash() {
+		return hash;
+	}
+
+	@Override
+	public Result getLastResult() {
+		return lastResult;
+	}
+
+	@Override
+	public Action getLastAction() {
+		return lastAction;
+	}
+
+	@Override
+	public int getRowsCleared() {
+		return rowClearCnt;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMaxHeight() {
+		return maxHeight;
+	}
+
+	@Override
+	public int dropHeight(Piece piece, int x) {
+		int[] skirt = piece.getSkirt();
+		int maxHeight = 0;
+
+		//find maxHeight of the bounding box position using both skirt and column heights
+		for(int i = 0; i < skirt.length; i++)
+			maxHeight = Math.max(maxHeight, getColumnHeight(x+i) - skirt[i]);
+		return maxHeight;
+	}
+
+	@Override
+	public int getColumnHeight(int x) {
+		return heights[x];
+	}
+
+	@Override
+	public int getRowWidth(int y) {
+		return Integer.bitCount(rows[y]);
+	}
+
+	@Override
+	public Piece.PieceType getGrid(int x, int y) {
+		if(x < 0 || y < 0 || x >= width || y >= height)
+			return null;
+		return types[y][x];
+	}
+}
@@ -1,6 +1,7 @@
 package assignment;
 
 import java.awt.Point;
+import java.util.List;
 
 /**
  * An abstraction for a Tetris board, which allows for querying it's state and
@@ -101,6 +102,31 @@ public interface Board {
      */
     Board testMove(Action act);
 
+    /**
+     * Returns every distinct place the given piece can come to rest, starting with its bounding box
+     * at the given position and using any sequence of LEFT, RIGHT, DOWN, CLOCKWISE and
+     * COUNTERCLOCKWISE (with wall kicks) followed by a DROP. This includes placements that are only
+     * reachable by tucking under overhangs or kicking into place. Each placement carries the shortest
+     * action path that reaches it; placements covering the same cells are only reported once.
+     *
+     * The piece does not need to be the board's current piece, and the board is not modified. If the
+     * piece does not fit at the starting position, the list is empty.
+     */
+    List<Placement> legalPlacements(Piece piece, Point start);
+
+    /**
+     * Reverts the most recent call to {@link #move(Action)} or {@link #nextPiece(Piece, Point)}
+     * that has not already been undone, restoring the current piece and its position, the grid,
+     * the number of rows cleared and the last action/result. Calling it repeatedly walks further
+     * back, which lets an AI apply a move, evaluate it and roll it back on a single board
+     * instead of creating a copy with {@link #testMove(Action)}.
+     *
+     * Only a bounded number of recent changes are remembered, and a board returned by testMove
+     * starts with no history. An {@link IllegalStateException} is thrown when there is nothing
+     * left to undo.
+     */
+    void undo();
+
     /**
      * Return the current piece on the board, or null if there is no current piece.
      */
@@ -126,6 +152,31 @@ public interface Board {
      */
     void nextPiece(Piece p, Point startingPosition);
 
+    /**
+     * Replaces the whole state of the board: the grid (indexed [y][x], so grid[y][x] becomes
+     * getGrid(x, y)), the current piece (or null for none) at the given position, and the number
+     * of rows cleared so far. Full rows are taken to have just been filled, so the next move
+     * clears them, as it would after a placement. The undo history is forgotten and the last
+     * action/result are reset to null.
+     *
+     * An {@link IllegalArgumentException} is thrown if the grid is the wrong size, has more full
+     * rows than one piece can fill, or the piece would collide with it.
+     */
+    void restore(Piece.PieceType[][] grid, Piece piece, Point position, int rowsCleared);
+
+    /**
+     * Registers a listener to be told about every change to this board from now on; see
+     * {@link BoardListener} for the events. Listeners are not carried over to copies made by
+     * {@link #testMove(Action)}.
+     */
+    void addBoardListener(BoardListener listener);
+
+    /**
+     * Stops telling the given listener about changes to this board. Does nothing if it was
+     * not registered.
+     */
+    void removeBoardListener(BoardListener listener);
+
     /**
      * Return true if the given object is equal to this object. You are free to assume that the
      * other object is another board; for safety, you should probably verify before casting
@@ -137,6 +188,19 @@ public interface Board {
      */
     boolean equals(Object other);
 
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}; this should be derived from
+     * {@link #getZobristHash()}.
+     */
+    int hashCode();
+
+    /**
+     * Returns a 64-bit Zobrist hash of the grid and the current piece's type, rotation and
+     * position. Boards that are equal have the same hash. The hash is kept up to date as the board
+     * changes, so this is constant time, which makes it cheap to key transposition tables on.
+     */
+    long getZobristHash();
+
     /**
      * Returns the result of the last action given to the board.
      */
@@ -0,0 +1,121 @@
+package assignment;
+
+import java.awt.Point;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs boards of one size into fixed-size records and back: the rows cleared so far, the
+ * current piece and its position, and the grid at 3 bits a cell, so a standard 10x24 board
+ * takes 99 bytes. A record is laid out as (big-endian):
+ * <pre>
+ *   rowsCleared:4  piece:1  x:2  y:2  cells
+ * </pre>
+ * where piece is 0 for no piece, or type+1 in the low 3 bits and the rotation in the next 2;
+ * and each cell is 0 when empty or its type+1, row by row from the bottom left, starting from
+ * the low bits of each byte.
+ *
+ * Records are read and written at a buffer's position, so many of them can be streamed through
+ * one buffer, including a memory-mapped one. Reading restores an existing board rather than
+ * creating one, and decodes through a grid kept by the codec, so loading a board allocates
+ * nothing; a codec should therefore only be used by one thread at a time.
+ */
+public final class BoardCodec {
+
+	private static final int HEADER_SIZE = 9;
+	private static final int CELL_BITS = 3, CELL_MASK = (1 << CELL_BITS) - 1;
+	private static final Piece.PieceType[] TYPES = Piece.PieceType.values();
+
+	private final int width, height, recordSize;
+	private final Point position = new Point();
+	private Piece.PieceType[][] grid;
+
+	/**
+	 * Creates a codec for boards of the given size.
+	 */
+	public BoardCodec(int width, int height) {
+		if(width < 1 || height < 1)
+			throw new IllegalArgumentException("Board size must be positive: " + width + "x" + height);
+		this.width = width;
+		this.height = height;
+		this.recordSize = HEADER_SIZE + (width * height * CELL_BITS + 7) / 8;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the size in bytes of every record.
+	 */
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * Writes the board's record at the buffer's position, moving it past the record.
+	 */
+	public void write(Board board, ByteBuffer out) {
+		checkSize(board);
+		Piece piece = board.getCurrentPiece();
+		Point pos = piece == null ? null : board.getCurrentPiecePosition();
+		out.putInt(board.getRowsCleared());
+		out.put(piece == null ? 0 : (byte) ((piece.getType().ordinal() + 1) | piece.getRotationIndex() << CELL_BITS));
+		out.putShort(pos == null ? 0 : (short) pos.x).putShort(pos == null ? 0 : (short) pos.y);
+
+		int bits = 0, bitCount = 0;
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				Piece.PieceType type = board.getGrid(x, y);
+				bits |= (type == null ? 0 : type.ordinal() + 1) << bitCount;
+				bitCount += CELL_BITS;
+				if(bitCount >= 8) {
+					out.put((byte) bits);
+					bits >>>= 8;
+					bitCount -= 8;
+				}
+			}
+		}
+		if(bitCount > 0)
+			out.put((byte) bits);
+	}
+
+	/**
+	 * Reads the record at the buffer's position onto the board, moving the buffer past it.
+	 * See {@link Board#restore} for what becomes of the board's other state.
+	 */
+	public void read(ByteBuffer in, Board board) {
+		checkSize(board);
+		if(grid == null)
+			grid = new Piece.PieceType[height][width];
+		int rowsCleared = in.getInt();
+		int code = in.get();
+		position.setLocation(in.getShort(), in.getShort());
+		Piece piece = code == 0 ? null : TetrisPiece.of(TYPES[(code & CELL_MASK) - 1], (code >>> CELL_BITS) & 3);
+
+		int bits = 0, bitCount = 0;
+		for(int y = 0; y < height; y++) {
+			Piece.PieceType[] row = grid[y];
+			for(int x = 0; x < width; x++) {
+				if(bitCount < CELL_BITS) {
+					bits |= (in.get() & 0xFF) << bitCount;
+					bitCount += 8;
+				}
+				int cell = bits & CELL_MASK;
+				row[x] = cell == 0 ? null : TYPES[cell - 1];
+				bits >>>= CELL_BITS;
+				bitCount -= CELL_BITS;
+			}
+		}
+		board.restore(grid, piece, position, rowsCleared);
+	}
+
+	private void checkSize(Board board) {
+		if(board.getWidth() != width || board.getHeight() != height)
+			throw new IllegalArgumentException("Board is " + board.getWidth() + "x" + board.getHeight()
+					+ ", not " + width + "x" + height);
+	}
+}
@@ -0,0 +1,61 @@
+package assignment;
+
+/**
+ * Receives the changes a board goes through, as they happen. Register one with
+ * {@link Board#addBoardListener(BoardListener)}; every method does nothing by default, so
+ * implementations only override the events they care about.
+ *
+ * Events are plain method calls with primitive arguments, so firing them doesn't allocate.
+ * They are fired once the board is in its new state, so it is safe to query the board from a
+ * listener, but not to change it. Boards made by {@link Board#testMove(Board.Action)} start
+ * without listeners.
+ */
+public interface BoardListener {
+
+    /**
+     * A new current piece was placed on the board, with its bounding box at (x, y).
+     */
+    default void pieceSpawned(Board board, Piece piece, int x, int y) {
+    }
+
+    /**
+     * The current piece moved with a LEFT, RIGHT, DOWN or DROP; its bounding box is now at
+     * (x, y). A DROP is followed by {@link #pieceLocked}.
+     */
+    default void pieceMoved(Board board, Board.Action action, int x, int y) {
+    }
+
+    /**
+     * The current piece rotated into the given piece, with its bounding box now at (x, y).
+     * kickIndex is the entry of the wall kick table that fit; 0 means no kick was needed.
+     */
+    default void pieceRotated(Board board, Piece piece, int x, int y, int kickIndex) {
+    }
+
+    /**
+     * The piece became part of the grid, with its bounding box at (x, y). The board has no
+     * current piece afterwards.
+     */
+    default void pieceLocked(Board board, Piece piece, int x, int y) {
+    }
+
+    /**
+     * Full rows were cleared. The first count entries of rows hold their indices from before
+     * the clear, lowest first. The array is reused, so copy it to keep it past the call.
+     */
+    default void rowsCleared(Board board, int[] rows, int count) {
+    }
+
+    /**
+     * A new piece could not be placed on the board, so the game can't go on.
+     */
+    default void gameOver(Board board) {
+    }
+
+    /**
+     * The last change was reverted by {@link Board#undo()}; anything derived from the events so
+     * far should be recomputed from the board.
+     */
+    default void undone(Board board) {
+    }
+}
@@ -0,0 +1,109 @@
+package assignment;
+
+import java.util.Arrays;
+
+/**
+ * The listeners registered on a board. The array is replaced rather than changed when a
+ * listener is added or removed, so firing an event never allocates and a listener may
+ * unregister itself while an event is being fired.
+ */
+final class BoardListeners {
+
+	private BoardListener[] listeners = new BoardListener[0];
+
+	// handed to rowsCleared; boards clear at most four rows at a time
+	private final int[] clearedRows = new int[4];
+
+	/**
+	 * Adds a listener to a board's listeners, creating them if the board has none yet.
+	 * Returns the board's listeners.
+	 */
+	static BoardListeners add(BoardListeners listeners, BoardListener listener) {
+		if(listener == null)
+			throw new NullPointerException("listener");
+		if(listeners == null)
+			listeners = new BoardListeners();
+		BoardListener[] all = Arrays.copyOf(listeners.listeners, listeners.listeners.length + 1);
+		all[all.length - 1] = listener;
+		listeners.listeners = all;
+		return listeners;
+	}
+
+	/**
+	 * Removes a listener from a board's listeners, which may be null if none were ever added.
+	 */
+	static void remove(BoardListeners listeners, BoardListener listener) {
+		if(listeners == null)
+			return;
+		BoardListener[] all = listeners.listeners;
+		for(int i = 0; i < all.length; i++) {
+			if(all[i] == listener) {
+				BoardListener[] rest = new BoardListener[all.length - 1];
+				System.arraycopy(all, 0, rest, 0, i);
+				System.arraycopy(all, i + 1, rest, i, rest.length - i);
+				listeners.listeners = rest;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Fires the events for the move a board just made, whose record is the journal's current
+	 * one. piece, x and y are where the board's current piece is now, and kickIndex the kick
+	 * used if the move was a rotation.
+	 */
+	void moved(Board board, MoveJournal journal, Board.Action act, Board.Result res, Piece piece, int x, int y,
+			int kickIndex) {
+		if(journal.kind() == MoveJournal.KIND_PLACE) {
+			int placeX = journal.placeX(), placeY = journal.placeY();
+			if(act == Board.Action.DROP)
+				pieceMoved(board, act, placeX, placeY);
+			pieceLocked(board, journal.piece(), placeX, placeY);
+		} else if(res == Board.Result.SUCCESS) {
+			if(act == Board.Action.CLOCKWISE || act == Board.Action.COUNTERCLOCKWISE)
+				pieceRotated(board, piece, x, y, kickIndex);
+			else if(act == Board.Action.LEFT || act == Board.Action.RIGHT || act == Board.Action.DOWN)
+				pieceMoved(board, act, x, y);
+		}
+
+		//rows filled by the previous move were cleared after this one
+		if(journal.clearedCount() > 0)
+			rowsCleared(board, journal);
+	}
+
+	void pieceSpawned(Board board, Piece piece, int x, int y) {
+		for(BoardListener listener : listeners)
+			listener.pieceSpawned(board, piece, x, y);
+	}
+
+	private void pieceMoved(Board board, Board.Action action, int x, int y) {
+		for(BoardListener listener : listeners)
+			listener.pieceMoved(board, action, x, y);
+	}
+
+	private void pieceRotated(Board board, Piece piece, int x, int y, int kickIndex) {
+		for(BoardListener listener : listeners)
+			listener.pieceRotated(board, piece, x, y, kickIndex);
+	}
+
+	private void pieceLocked(Board board, Piece piece, int x, int y) {
+		for(BoardListener listener : listeners)
+			listener.pieceLocked(board, piece, x, y);
+	}
+
+	private void rowsCleared(Board board, MoveJournal journal) {
+		int count = journal.clearedRows(clearedRows);
+		for(BoardListener listener : listeners)
+			listener.rowsCleared(board, clearedRows, count);
+	}
+
+	void gameOver(Board board) {
+		for(BoardListener listener : listeners)
+			listener.gameOver(board);
+	}
+
+	void undone(Board board) {
+		for(BoardListener listener : listeners)
+			listener.undone(board);
+	}
+}
@@ -1,5 +1,7 @@
 package assignment;
 
+import java.util.List;
+
 /**
  * Brain interface for JTetris; has a single method which takes the current
  * board state and returns the desired action.
@@ -12,4 +14,13 @@ public interface Brain {
      * Should not mutate the state of the given board.
      */
     Board.Action nextMove(Board currentBoard);
+
+    /**
+     * Tells the brain which pieces come after the current one, soonest first. Called before
+     * nextMove whenever a preview is available; brains that don't look ahead can ignore it.
+     * 
+     * The list may change after the call returns, so brains should copy what they need.
+     */
+    default void setPreview(List<Piece> upcoming) {
+    }
 }
@@ -0,0 +1,107 @@
+package assignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BrainWorker runs a brain on its own thread, so a game's thread never waits for it to decide.
+ * The brain decides on a snapshot of the board, and every snapshot is tagged with the version of
+ * the board it was taken from. Whenever the board changes the game bumps the version, and any
+ * decision that comes back for an older one is dropped instead of played.
+ *
+ * Apart from the brain itself, everything here is meant to be used from the single thread that
+ * owns the board (the event thread, in JBrainTetris). The owner should close the worker once it
+ * is done with it, to let the brain's thread go.
+ */
+public class BrainWorker implements AutoCloseable {
+    public static final int DECISION_QUEUE_SIZE = 1;
+
+    // A move the brain chose, and the version of the board it was chosen for
+    private static class Decision {
+        final long version;
+        final Board.Action action;
+
+        Decision(long version, Board.Action action) {
+            this.version = version;
+            this.action = action;
+        }
+    }
+
+    private final Brain brain;
+    private final ExecutorService brainThread = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "brain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final BlockingQueue<Decision> decisions = new ArrayBlockingQueue<>(DECISION_QUEUE_SIZE);
+
+    // Only touched on the owning thread
+    private long version;        // bumped whenever the board changes
+    private boolean thinking;    // true while a decision is on its way
+
+    public BrainWorker(Brain brain) {
+        this.brain = brain;
+    }
+
+    /**
+     * Hands the brain a snapshot of the board and the upcoming pieces to decide on in the
+     * background. Only one decision is made at a time, so this should only be called when the
+     * worker isn't already thinking.
+     */
+    public void think(Board board, List<Piece> preview) {
+        Board snapshot = board.testMove(Board.Action.NOTHING);
+        List<Piece> upcoming = new ArrayList<>(preview);
+        long snapshotVersion = version;
+        thinking = true;
+        brainThread.execute(() -> {
+            Board.Action action = null;
+            try {
+                brain.setPreview(upcoming);
+                action = brain.nextMove(snapshot);
+            } finally {
+                // always answer, so the game asks again even if the brain failed
+                decisions.offer(new Decision(snapshotVersion, action));
+            }
+        });
+    }
+
+    /**
+     * Returns the brain's decision if it has arrived and was made for the board as it is now, or
+     * null if there is no decision yet, it is for a board that has since moved on, or the brain
+     * failed.
+     */
+    public Board.Action poll() {
+        Decision decision = decisions.poll();
+        if (decision == null)
+            return null;
+        thinking = false;
+        return decision.version == version ? decision.action : null;
+    }
+
+    /**
+     * Records that the board has changed, so decisions made for it before now are dropped.
+     */
+    public void boardChanged() {
+        version++;
+    }
+
+    /**
+     * Returns true while a decision is on its way.
+     */
+    public boolean isThinking() {
+        return thinking;
+    }
+
+    /**
+     * Stops the brain's thread, interrupting a decision that is still being made. The worker
+     * can't think again afterwards.
+     */
+    @Override
+    public void close() {
+        brainThread.shutdownNow();
+    }
+}
@@ -1,12 +1,10 @@
 package assignment;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class CheeseBrain implements Brain {
 
-    private ArrayList<Board> options;
-    private ArrayList<Board.Action> firstMoves;
-    
     //how much each score should be weighted in the score calculation
     private static final double CHEESE_WEIGHT = 35;
     private static final double HEIGHT_WEIGHT = 5;
@@ -14,89 +12,106 @@ public class CheeseBrain implements Brain {
     private static final double TEXTURE_WEIGHT =5;
     private static final double HOLE_WEIGHT = 1;
     private static final double IDEAL_TEXTURE = 4;
+
+    //null when placements are scored on the calling thread; owned by whoever passed it in
+    private final ForkJoinPool pool;
+
+    //the actions still to play for the current piece
+    private Plan plan;
+
+    public CheeseBrain() {
+    	this(null);
+    }
+
+    /**
+     * Creates a brain that scores candidate placements on the given pool, or on the calling
+     * thread if it is null. The brain never shuts the pool down, so one pool can serve any
+     * number of brains and games. The chosen move is the same for any pool: ties still go to
+     * the placement that was enumerated first.
+     */
+    public CheeseBrain(ForkJoinPool pool) {
+    	this.pool = pool;
+    }
+
     /**
      * Decide what the next move should be based on the state of the board.
      */
     public Board.Action nextMove(Board currentBoard) {
     	//printScore(currentBoard);
-        // Fill the our options array with versions of the new Board
-        options = new ArrayList<>();
-        firstMoves = new ArrayList<>();
-        enumerateRotations(currentBoard, null);
-
-        double best = Double.POSITIVE_INFINITY;
-        int bestIndex = 0;
+    	Piece piece = currentBoard.getCurrentPiece();
+    	if(piece == null) {
+    		plan = null;
+    		return Board.Action.NOTHING;
+    	}
 
-        // Check all of the options and get the one with the best score
-        for (int i = 0; i < options.size(); i++) {
-        	double score = scoreBoard(options.get(i));
-            // best score is now the minimum score
-            if (score < best) {
-                best = score;
-                bestIndex = i;
-            }
+        // Keep following the plan for this piece while the board is where we expect it
+        if(plan != null) {
+        	Board.Action planned = plan.next(currentBoard);
+        	if(planned != null) return planned;
         }
-        // We want to return the first move on the way to the best Board
-        return firstMoves.get(bestIndex);
-    }
 
-    /**
-     * Test all of the places we can move the piece to.
-     */
-    private void enumeratePositions(Board currentBoard, Board.Action previous) {
-    	// We can always drop our current Piece
-        options.add(currentBoard.testMove(Board.Action.DROP));
-        if(previous == null) firstMoves.add(Board.Action.DROP);
-        else firstMoves.add(previous);
-
-        // Now we'll add all the places to the left we can DROP
-        Board left = currentBoard.testMove(Board.Action.LEFT);
-        while (left.getLastResult() == Board.Result.SUCCESS) {
-            options.add(left.testMove(Board.Action.DROP));
-            if(previous == null) firstMoves.add(Board.Action.LEFT);
-            else firstMoves.add(previous);
-            left.move(Board.Action.LEFT);
+        // Every place the piece can end up, with the moves to get there. Rows left full by the last
+        // placement are cleared by the next move, so search the board as it will be once they are.
+        Board cleared = currentBoard.testMove(Board.Action.NOTHING);
+        List<Placement> placements = cleared.legalPlacements(piece, cleared.getCurrentPiecePosition());
+        if(placements.isEmpty()) return Board.Action.DROP;
+
+        double[] scores = new double[placements.size()];
+        if(pool == null || placements.size() < 2) {
+        	scoreRange(cleared, placements, scores, 0, placements.size());
+        } else {
+        	//split into contiguous chunks, each scored on its own scratch board
+        	int chunks = Math.min(pool.getParallelism(), placements.size());
+        	List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        	for(int c = 0; c < chunks; c++) {
+        		int from = c * placements.size() / chunks, to = (c+1) * placements.size() / chunks;
+        		tasks.add(() -> {
+        			scoreRange(cleared.testMove(Board.Action.NOTHING), placements, scores, from, to);
+        			return null;
+        		});
+        	}
+        	for(Future<Void> task : pool.invokeAll(tasks)) {
+        		try {
+        			task.get();
+        		} catch(InterruptedException | ExecutionException e) {
+        			throw new IllegalStateException("Placement scoring failed", e);
+        		}
+        	}
         }
 
-        // And then the same thing to the right
-        Board right = currentBoard.testMove(Board.Action.RIGHT);
-        while (right.getLastResult() == Board.Result.SUCCESS) {
-            options.add(right.testMove(Board.Action.DROP));
-            if(previous == null) firstMoves.add(Board.Action.RIGHT);
-            else firstMoves.add(previous);
-            right.move(Board.Action.RIGHT);
+        // best score is now the minimum score; the first one found wins ties
+        double best = Double.POSITIVE_INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] < best) {
+                best = scores[i];
+                bestIndex = i;
+            }
         }
+        // Commit to the whole path to the best Board and return its first move
+        plan = new Plan(currentBoard, placements.get(bestIndex).getActions());
+        return plan.next(currentBoard);
     }
     
-    /**
-     * Test all rotations, and the result to the possible options.
+    /*
+     * Scores placements [from, to) into scores, playing each onto the scratch board and rolling it back.
      */
-    private void enumerateRotations(Board currentBoard, Board.Action previous) {
-    	//drop the piece
-    	enumeratePositions(currentBoard, null);
-    	
-    	//consider all clockwise turns
-    	Board clockwiseBoard = currentBoard.testMove(Board.Action.CLOCKWISE);
-    	enumeratePositions(clockwiseBoard, Board.Action.CLOCKWISE);
-    	clockwiseBoard = clockwiseBoard.testMove(Board.Action.CLOCKWISE);
-    	enumeratePositions(clockwiseBoard, Board.Action.CLOCKWISE);
-    	clockwiseBoard = clockwiseBoard.testMove(Board.Action.CLOCKWISE);
-    	enumeratePositions(clockwiseBoard, Board.Action.CLOCKWISE);
-
-
-    	//consider all counterclockwise turns
-    	Board counterclockwiseBoard = currentBoard.testMove(Board.Action.COUNTERCLOCKWISE);
-    	enumeratePositions(counterclockwiseBoard, Board.Action.COUNTERCLOCKWISE);
-    	counterclockwiseBoard = counterclockwiseBoard.testMove(Board.Action.COUNTERCLOCKWISE);
-    	enumeratePositions(counterclockwiseBoard, Board.Action.COUNTERCLOCKWISE);
-    	counterclockwiseBoard = counterclockwiseBoard.testMove(Board.Action.COUNTERCLOCKWISE);
-    	enumeratePositions(counterclockwiseBoard, Board.Action.COUNTERCLOCKWISE);
+    private void scoreRange(Board scratch, List<Placement> placements, double[] scores, int from, int to) {
+    	for (int i = from; i < to; i++) {
+    		List<Board.Action> actions = placements.get(i).getActions();
+    		for (Board.Action act : actions)
+    			scratch.move(act);
+    		scores[i] = scoreBoard(scratch);
+    		for (int j = 0; j < actions.size(); j++)
+    			scratch.undo();
+    	}
     }
-    
+
     /**
      * Combine cheese score, texture score, and max height for the total score.
+     * Lower is better.
      */
-    private double scoreBoard(Board newBoard) {
+    double scoreBoard(Board newBoard) {
         return HEIGHT_WEIGHT*heightScore(newBoard)
         		+ CHEESE_WEIGHT*cheeseScore(newBoard) 
         		+ TEXTURE_WEIGHT*textureScore(newBoard) 
@@ -146,53 +161,63 @@ public class CheeseBrain implements Brain {
     /*
      * Scores the number of holes in a board.
      */
-    
-    boolean[][] mat;
-    boolean[][] vis;
+
+    //union-find parents for the cells of the board, one buffer per thread, grown as needed
+    private static final ThreadLocal<int[]> holeScratch = ThreadLocal.withInitial(() -> new int[0]);
+
     private double holeScore(Board newBoard) {
-    	int holeCnt = 0;
     	int width = newBoard.getWidth();
-    	int height = newBoard.getHeight();
-    	
-    	//instantiate some matrices for floodfill
-    	mat = new boolean[width][height];
-    	vis = new boolean[width][height];
-    	for(int i = 0; i < width; i++)
-    		for(int j = 0; j < height; j++)
-    			mat[i][j] = newBoard.getGrid(i, j) == null;
-    	
-    	//attempt to block off some of the uppermost empty space to avoid long interconnected holes
-    	for(int j = height-1; j >= 0; j--) {
-    		if(newBoard.getRowWidth(j) == 0)
-    			for(int i = 0; i < width; i++)
-    				vis[i][j] = true;
-    		else
-    			break;
+
+    	//block off the uppermost empty rows to avoid long interconnected holes
+    	int top = newBoard.getHeight();
+    	while(top > 0 && newBoard.getRowWidth(top-1) == 0)
+    		top--;
+
+    	int[] parent = holeScratch.get();
+    	if(parent.length < width*top) {
+    		parent = new int[width*top];
+    		holeScratch.set(parent);
     	}
-    	
-    	//floodfill to count distinct holes
-    	for(int i = 0; i < width; i++)
-    		for(int j = 0; j < height; j++)
-    			if(mat[i][j] && !vis[i][j]) {
-    				holeCnt++;
-    				fill(i,j);
-    			}
-    	
+
+    	//count the empty regions row by row, joining each empty cell to empty neighbours left and below
+    	int holeCnt = 0;
+    	for(int j = 0; j < top; j++) {
+    		for(int i = 0; i < width; i++) {
+    			if(newBoard.getGrid(i, j) != null)
+    				continue;
+    			int cell = j*width + i;
+    			parent[cell] = cell;
+    			holeCnt++;
+    			if(i > 0 && newBoard.getGrid(i-1, j) == null && union(parent, cell, cell-1))
+    				holeCnt--;
+    			if(j > 0 && newBoard.getGrid(i, j-1) == null && union(parent, cell, cell-width))
+    				holeCnt--;
+    		}
+    	}
+
     	//square the result for increasing penalty with more holes
     	return holeCnt*holeCnt;
     }
-    
+
     /*
-     * Floodfill algorithm to visit every part of a hole
+     * Joins the regions of two cells, returning false if they were already the same region
      */
-    private void fill(int i, int j) {
-    	if(i < 0 || j < 0 || i >= mat.length || j >= mat[0].length || !mat[i][j] || vis[i][j]) 
-    		return;
-    	vis[i][j] = true;
-    	fill(i+1, j);
-    	fill(i-1, j);
-    	fill(i, j+1);
-    	fill(i, j-1);
+    private static boolean union(int[] parent, int a, int b) {
+    	a = find(parent, a);
+    	b = find(parent, b);
+    	if(a == b)
+    		return false;
+    	parent[a] = b;
+    	return true;
+    }
+
+    private static int find(int[] parent, int cell) {
+    	//path halving keeps the trees shallow without recursion
+    	while(parent[cell] != cell) {
+    		parent[cell] = parent[parent[cell]];
+    		cell = parent[cell];
+    	}
+    	return cell;
     }
     /*
      * Scores the texture of a board.
@@ -0,0 +1,297 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Plays headless games and streams every decision the brain makes to a file as a training
+ * example: the board the brain saw, the action it chose, and what followed, namely the rows
+ * cleared over the next horizon pieces (counting the current one) and whether the game ended
+ * within them. Examples are held back until their outcome is known and then handed to an
+ * {@link AsyncBatchWriter}, so the games never wait on the disk.
+ *
+ * The file is laid out as (big-endian):
+ * <pre>
+ *   "TDAT"  version:1  width:2  height:2  horizon:2  maxPieces:4  seed:8
+ *   records: game:4  action:1  flags:1  rows:2  BoardCodec record
+ * </pre>
+ * flags has ENDED set if the game ended within the horizon. Every game closes with a record
+ * that has GAME_END set and an empty board. Examples from the last pieces of a game stopped at
+ * maxPieces are left out, since their outcome is unknown.
+ *
+ * Game i is always played with the i-th seed drawn from the export seed, as in BatchSimulator.
+ * Opening an existing file with the same settings resumes it: a game cut short by a crash is
+ * removed and played again, and exporting carries on from the first game not in the file.
+ */
+public class DatasetExporter implements Closeable {
+
+    static final int MAGIC = 0x54444154; // "TDAT"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 23, RECORD_HEADER_SIZE = 8;
+
+    /** Flag set on examples whose game ended within the horizon. */
+    public static final int ENDED = 1;
+    /** Flag set on the record that closes each game. */
+    public static final int GAME_END = 2;
+
+    private static final int BATCH_SIZE = 1 << 16, BATCHES = 8;
+
+    private final Supplier<Brain> brains;
+    private final int horizon, maxPieces;
+    private final long seed;
+    private final BoardCodec codec = new BoardCodec(Playfield.WIDTH, Playfield.HEIGHT + Playfield.TOP_SPACE);
+    private final int recordSize = RECORD_HEADER_SIZE + codec.getRecordSize();
+    private final AsyncBatchWriter out;
+    private int nextGame;
+
+    // the game being played and the examples from it still waiting for their outcome
+    private HeadlessTetris game;
+    private ByteBuffer pendingBoards = ByteBuffer.allocate(0);
+    private int[] pendingPieces = new int[0];
+    private byte[] pendingActions = new byte[0];
+    private int pendingStart, pendingEnd;
+
+    // rows cleared by the time each of the last horizon+1 pieces entered, indexed by piece % (horizon+1)
+    private final int[] settled;
+
+    /**
+     * Opens the dataset file, creating it or resuming it. Every game gets a new brain from the
+     * supplier and lasts at most maxPieces pieces. Throws an IOException if the file exists
+     * but was written with different settings.
+     */
+    public DatasetExporter(Path file, Supplier<Brain> brains, int horizon, long seed, int maxPieces) throws IOException {
+        if(horizon < 1 || horizon > Short.MAX_VALUE / 4)
+            throw new IllegalArgumentException("Horizon out of range: " + horizon);
+        this.brains = brains;
+        this.horizon = horizon;
+        this.seed = seed;
+        this.maxPieces = maxPieces;
+        this.settled = new int[horizon + 1];
+
+        boolean resume = Files.exists(file) && Files.size(file) > 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).put(VERSION).putShort((short) codec.getWidth()).putShort((short) codec.getHeight())
+                    .putShort((short) horizon).putInt(maxPieces).putLong(seed).flip();
+            if(resume)
+                resume(channel, header, file);
+            else {
+                while(header.hasRemaining())
+                    channel.write(header);
+            }
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        out = new AsyncBatchWriter(channel, BATCH_SIZE, BATCHES);
+    }
+
+    // Checks the header matches, drops any unfinished game and positions the channel after the last whole one
+    private void resume(FileChannel channel, ByteBuffer expected, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while(header.hasRemaining() && channel.read(header, header.position()) >= 0);
+        header.flip();
+        if(!header.equals(expected))
+            throw new IOException("Dataset was written with different settings: " + file);
+
+        long records = (channel.size() - HEADER_SIZE) / recordSize;
+        long keep = records;
+        if(records > 0) {
+            int last = gameAt(channel, records - 1);
+            if(flagsAt(channel, records - 1) == GAME_END)
+                nextGame = last + 1;
+            else {
+                //the last game never finished; find where it started and play it again
+                long lo = 0, hi = records - 1;
+                while(lo < hi) {
+                    long mid = (lo + hi) >>> 1;
+                    if(gameAt(channel, mid) < last)
+                        lo = mid + 1;
+                    else
+                        hi = mid;
+                }
+                keep = lo;
+                nextGame = last;
+            }
+        }
+        channel.truncate(HEADER_SIZE + keep * recordSize);
+        channel.position(HEADER_SIZE + keep * recordSize);
+    }
+
+    private int gameAt(FileChannel channel, long record) throws IOException {
+        return readAt(channel, record, 0, 4).getInt(0);
+    }
+
+    private int flagsAt(FileChannel channel, long record) throws IOException {
+        return readAt(channel, record, 5, 1).get(0);
+    }
+
+    private ByteBuffer readAt(FileChannel channel, long record, int offset, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        long position = HEADER_SIZE + record * recordSize + offset;
+        while(buffer.hasRemaining())
+            if(channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Dataset ends mid-record");
+        return buffer;
+    }
+
+    /**
+     * Returns the index of the next game to be exported; games before it are already in the file.
+     */
+    public int getNextGame() {
+        return nextGame;
+    }
+
+    /**
+     * Plays and exports games until the file holds the given number of them.
+     */
+    public void run(int games) throws IOException {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for(int i = 0; i < nextGame; i++)
+            seeds.nextLong();
+        for(; nextGame < games; nextGame++)
+            play(nextGame, seeds.nextLong());
+    }
+
+    // Plays one game, writing its examples as their outcomes become known
+    private void play(int index, long gameSeed) throws IOException {
+        game = new HeadlessTetris(new Sampler(brains.get()), gameSeed);
+        pendingStart = pendingEnd = 0;
+        int seen = game.getPieces();
+        settled[seen % settled.length] = settledRows();
+
+        while(game.isGameOn() && game.getPieces() < maxPieces) {
+            game.step();
+            if(game.getPieces() == seen)
+                continue;
+            //a new piece entered, so the examples from horizon pieces ago are complete; that holds
+            //even for a piece that then had no room to spawn and ended the game
+            seen = game.getPieces();
+            int rows = settledRows();
+            settled[seen % settled.length] = rows;
+            while(pendingStart < pendingEnd && pendingPieces[pendingStart] <= seen - horizon)
+                emit(index, rows - settled[pendingPieces[pendingStart] % settled.length], 0);
+        }
+
+        //the game ended inside the window of every example left; if it was stopped instead, their outcome is unknown
+        if(!game.isGameOn()) {
+            int rows = settledRows();
+            while(pendingStart < pendingEnd)
+                emit(index, rows - settled[pendingPieces[pendingStart] % settled.length], ENDED);
+        }
+        ByteBuffer record = out.buffer(recordSize);
+        int end = record.position() + recordSize;
+        record.putInt(index).put((byte) 0).put((byte) GAME_END);
+        while(record.position() < end)
+            record.put((byte) 0);
+        game = null;
+    }
+
+    // Writes out the oldest pending example with its outcome
+    private void emit(int index, int rows, int flags) throws IOException {
+        int i = pendingStart++;
+        ByteBuffer record = out.buffer(recordSize);
+        record.putInt(index).put(pendingActions[i]).put((byte) flags).putShort((short) rows);
+        record.put(pendingBoards.array(), i * codec.getRecordSize(), codec.getRecordSize());
+    }
+
+    // Rows cleared so far, counting full rows the board hasn't cleared yet
+    private int settledRows() {
+        Board board = game.getBoard();
+        int rows = board.getRowsCleared();
+        for(int y = 0; y < board.getMaxHeight(); y++)
+            if(board.getRowWidth(y) == board.getWidth())
+                rows++;
+        return rows;
+    }
+
+    // Makes room for one more pending example
+    private void reserve() {
+        if(pendingEnd < pendingPieces.length)
+            return;
+        int size = codec.getRecordSize(), count = pendingEnd - pendingStart;
+        if(pendingStart > 0) {
+            //slide the pending examples to the front
+            System.arraycopy(pendingBoards.array(), pendingStart * size, pendingBoards.array(), 0, count * size);
+            System.arraycopy(pendingPieces, pendingStart, pendingPieces, 0, count);
+            System.arraycopy(pendingActions, pendingStart, pendingActions, 0, count);
+        }
+        if(count * 2 >= pendingPieces.length) {
+            int capacity = Math.max(64, pendingPieces.length * 2);
+            ByteBuffer boards = ByteBuffer.allocate(capacity * size);
+            boards.put(pendingBoards.array(), 0, count * size);
+            pendingBoards = boards;
+            pendingPieces = Arrays.copyOf(pendingPieces, capacity);
+            pendingActions = Arrays.copyOf(pendingActions, capacity);
+        }
+        pendingStart = 0;
+        pendingEnd = count;
+    }
+
+    // Passes decisions through to the real brain, keeping each one with the board it was made on
+    private class Sampler implements Brain {
+        private final Brain brain;
+
+        Sampler(Brain brain) {
+            this.brain = brain;
+        }
+
+        @Override
+        public void setPreview(List<Piece> upcoming) {
+            brain.setPreview(upcoming);
+        }
+
+        @Override
+        public Board.Action nextMove(Board currentBoard) {
+            Board.Action action = brain.nextMove(currentBoard);
+            reserve();
+            pendingBoards.position(pendingEnd * codec.getRecordSize());
+            codec.write(currentBoard, pendingBoards);
+            pendingPieces[pendingEnd] = game.getPieces();
+            pendingActions[pendingEnd] = (byte) action.ordinal();
+            pendingEnd++;
+            return action;
+        }
+    }
+
+    /**
+     * Writes out every example exported so far and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Exports CheeseBrain games, resuming the file if it already exists.
+     * Arguments: file, then optionally the number of games, horizon, seed and piece limit per game.
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int horizon = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        int maxPieces = args.length > 4 ? Integer.parseInt(args[4]) : 10000;
+
+        try(DatasetExporter exporter = new DatasetExporter(file, CheeseBrain::new, horizon, seed, maxPieces)) {
+            int first = exporter.getNextGame();
+            if(first > 0)
+                System.out.println("Resuming at game " + first);
+            long start = System.nanoTime();
+            exporter.run(games);
+            System.out.printf("Exported %d games in %.2f s%n", Math.max(0, games - first), (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package assignment;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DirtyRegion tracks which board cells have changed since the last repaint, as a few separate
+ * rectangles of cells: where the piece was before a move, where it is after, where a dropped
+ * piece lands, and the rows that moved when lines were cleared. JTetris repaints each rectangle
+ * on its own, so a drop from the top of the board doesn't repaint every row in between.
+ *
+ * Everything is in board cells; turning them into pixels is left to whoever draws the board.
+ */
+public final class DirtyRegion {
+    // changed cells, each rectangle's x and y being its bottom left cell
+    private final List<Rectangle> regions = new ArrayList<>();
+
+    /**
+     * Adds the bounding box of the board's current piece to the region. Does nothing if there is
+     * no current piece.
+     */
+    public void markPiece(Board board) {
+        Piece piece = board.getCurrentPiece();
+        if (piece == null) {
+            return;
+        }
+        Point position = board.getCurrentPiecePosition();
+        regions.add(new Rectangle(position.x, position.y, piece.getWidth(), piece.getHeight()));
+    }
+
+    /**
+     * Adds the bounding box the board's current piece would land in if it were dropped. Call this
+     * before the drop, while the piece is still there. Does nothing if there is no current piece.
+     */
+    public void markLanding(Board board) {
+        Piece piece = board.getCurrentPiece();
+        if (piece == null) {
+            return;
+        }
+        Point position = board.getCurrentPiecePosition();
+        int landing = board.dropHeight(piece, position.x);
+        if (landing <= position.y) {
+            regions.add(new Rectangle(position.x, landing, piece.getWidth(), piece.getHeight()));
+        } else {
+            // tucked under an overhang, so the column heights don't say where it stops
+            regions.add(new Rectangle(position.x, 0, piece.getWidth(), position.y + piece.getHeight()));
+        }
+    }
+
+    /**
+     * Adds every row from y up to the top of the board, which is everything that can move when
+     * rows from y upward are cleared.
+     */
+    public void markRowsFrom(Board board, int y) {
+        regions.add(new Rectangle(0, y, board.getWidth(), board.getHeight() - y));
+    }
+
+    /**
+     * Returns the lowest full row on the board, or the board's height if no row is full. Boards
+     * clear full rows on the move after the one that filled them, so calling this before a move
+     * finds the lowest row the move can clear.
+     */
+    public static int lowestFullRow(Board board) {
+        for (int y = 0; y < board.getHeight(); y++) {
+            if (board.getRowWidth(y) == board.getWidth()) {
+                return y;
+            }
+        }
+        return board.getHeight();
+    }
+
+    /**
+     * Returns true if no cells have been marked since the region was last cleared.
+     */
+    public boolean isEmpty() {
+        return regions.isEmpty();
+    }
+
+    /**
+     * Forgets every marked cell.
+     */
+    public void clear() {
+        regions.clear();
+    }
+
+    /**
+     * Returns the marked rectangles clipped to a board of the given size, each with its x and y
+     * being the bottom left cell, and clears the region. Rectangles that lie wholly off the board
+     * are left out.
+     */
+    public List<Rectangle> take(int width, int height) {
+        List<Rectangle> cells = new ArrayList<>(regions.size());
+        for (Rectangle region : regions) {
+            Rectangle clipped = region.intersection(new Rectangle(0, 0, width, height));
+            if (!clipped.isEmpty()) {
+                cells.add(clipped);
+            }
+        }
+        clear();
+        return cells;
+    }
+}
@@ -0,0 +1,70 @@
+package assignment;
+
+/**
+ * What happened in one headless game: how long it lasted and how well the brain did.
+ */
+public final class GameResult {
+
+	private final long seed;
+	private final int pieces, rowsCleared;
+	private final long moves, wallNanos;
+	private final boolean toppedOut;
+
+	GameResult(long seed, int pieces, int rowsCleared, long moves, long wallNanos, boolean toppedOut) {
+		this.seed = seed;
+		this.pieces = pieces;
+		this.rowsCleared = rowsCleared;
+		this.moves = moves;
+		this.wallNanos = wallNanos;
+		this.toppedOut = toppedOut;
+	}
+
+	/**
+	 * Returns the seed the game's pieces were drawn with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the number of pieces that entered the board, including the one that ended the game.
+	 */
+	public int getPieces() {
+		return pieces;
+	}
+
+	/**
+	 * Returns the number of rows cleared.
+	 */
+	public int getRowsCleared() {
+		return rowsCleared;
+	}
+
+	/**
+	 * Returns the number of moves played, which is also the number of brain decisions.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Returns the wall-clock time the game took, in nanoseconds.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Returns true if the game ended because the stack reached the top, and false if it
+	 * was stopped at its piece limit.
+	 */
+	public boolean isToppedOut() {
+		return toppedOut;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("seed %d: %d pieces, %d rows, %d moves in %.1f ms%s", seed, pieces, rowsCleared,
+				moves, wallNanos / 1e6, toppedOut ? "" : " (piece limit)");
+	}
+}
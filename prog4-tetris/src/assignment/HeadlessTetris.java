@@ -0,0 +1,208 @@
+package assignment;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * HeadlessTetris plays a game with a brain and no GUI, as fast as the brain can decide.
+ * It follows the same rules as JBrainTetris: the brain makes its moves, gravity pulls the
+ * piece down after every GRAVITY_MOVES of them, pieces come from a seeded randomizer through
+ * a preview queue, and the game ends when a piece lands in the top rows or a new piece can't
+ * be spawned.
+ *
+ * Nothing here needs a display; the only java.awt type used is the Point the board takes.
+ */
+public class HeadlessTetris {
+    // brain moves between gravity DOWNs; JBrainTetris asks its brain every 4 ms and its timer
+    // moves the piece down every 400 ms, so a brain that never drops still gets pieces placed
+    public static final int GRAVITY_MOVES = 100;
+
+    private final Board board;
+    private final Brain brain;
+    private final Randomizer randomizer;
+    private final long seed;
+    private final PieceQueue queue;
+    private final int height;    // pieces landing above this row end the game
+    private ReplayWriter recorder;    // null unless the game is being recorded
+
+    private boolean gameOn = true;
+    private int pieces;
+    private long moves;
+
+    /**
+     * Creates a game on a standard empty board.
+     */
+    public HeadlessTetris(Brain brain, long seed) {
+        this(brain, Randomizer.UNIFORM, seed);
+    }
+
+    /**
+     * Creates a game on a standard empty board whose pieces are drawn by the given randomizer.
+     */
+    public HeadlessTetris(Brain brain, Randomizer randomizer, long seed) {
+        this(new TetrisBoard(Playfield.WIDTH, Playfield.HEIGHT + Playfield.TOP_SPACE), brain, randomizer, seed);
+    }
+
+    /**
+     * Creates a game on the given empty board, keeping the top Playfield.TOP_SPACE rows for spawning.
+     * The brain should not be shared with other games, since brains may keep state between moves.
+     * The brain may be null if every move will be given to play() instead.
+     */
+    public HeadlessTetris(Board board, Brain brain, long seed) {
+        this(board, brain, Randomizer.UNIFORM, seed);
+    }
+
+    /**
+     * Creates a game like HeadlessTetris(board, brain, seed) whose pieces are drawn by the given
+     * randomizer.
+     */
+    public HeadlessTetris(Board board, Brain brain, Randomizer randomizer, long seed) {
+        this(board, brain, randomizer, seed, 0, 0);
+    }
+
+    /**
+     * Picks a game back up from a board restored partway through it, after the given number of
+     * pieces had entered the board and moves had been played. The pieces are drawn from the
+     * seed again, so the preview and every piece after it are the same as in the original game.
+     */
+    public HeadlessTetris(Board board, Brain brain, Randomizer randomizer, long seed, int pieces, long moves) {
+        if(board.getHeight() <= Playfield.TOP_SPACE)
+            throw new IllegalArgumentException("Board is too short: " + board.getHeight());
+        this.board = board;
+        this.brain = brain;
+        this.randomizer = randomizer;
+        this.seed = seed;
+        this.queue = new PieceQueue(randomizer.create(seed), Playfield.PREVIEW_SIZE);
+        this.height = board.getHeight() - Playfield.TOP_SPACE;
+        this.moves = moves;
+        if(pieces == 0) {
+            addNewPiece();
+            return;
+        }
+
+        //skip the pieces already played; the preview holds the ones after them
+        this.pieces = pieces;
+        for(int i = 0; i < pieces; i++)
+            queue.next();
+    }
+
+    // Adds the next piece from the queue to the board, ending the game if it doesn't fit
+    private void addNewPiece() {
+        pieces++;
+        Piece nextPiece = queue.next();
+        try {
+            board.nextPiece(nextPiece, new Point(board.getWidth() / 2 - nextPiece.getWidth() / 2, height));
+        } catch(IllegalArgumentException ex) {
+            gameOn = false;
+        }
+    }
+
+    /**
+     * Asks the brain for one move and plays it, followed by gravity's DOWN if it is due.
+     * Returns false once the game is over.
+     */
+    public boolean step() {
+        if(!gameOn)
+            return false;
+
+        brain.setPreview(queue.getPreview());
+        if(!play(brain.nextMove(board)))
+            return false;
+        //gravity takes every (GRAVITY_MOVES+1)th move, so a resumed game keeps the same timing
+        if(moves % (GRAVITY_MOVES + 1) == GRAVITY_MOVES)
+            return play(Board.Action.DOWN);
+        return true;
+    }
+
+    /**
+     * Plays the given move, as the brain would have. Returns false once the game is over.
+     */
+    public boolean play(Board.Action action) {
+        if(!gameOn)
+            return false;
+
+        if(recorder != null) {
+            try {
+                if(recorder.isKeyFrameDue())
+                    recorder.writeKeyFrame(board, pieces);
+                recorder.write(action);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Board.Result result = board.move(action);
+        moves++;
+        // The board is responsible for staying in a good state; the game only has to notice
+        // a placement that topped out, and bring in the next piece once the last one is down
+        if(result == Board.Result.PLACE && board.getMaxHeight() > height)
+            gameOn = false;
+        if(gameOn && (result == Board.Result.PLACE || result == Board.Result.NO_PIECE))
+            addNewPiece();
+        return gameOn;
+    }
+
+    /**
+     * Plays until the game is over or maxPieces pieces have entered the board, and reports
+     * how it went.
+     */
+    public GameResult run(int maxPieces) {
+        long start = System.nanoTime();
+        while(pieces < maxPieces && step());
+        return new GameResult(seed, pieces, board.getRowsCleared(), moves, System.nanoTime() - start, !gameOn);
+    }
+
+    /**
+     * Records every move played from now on to the given replay, or stops recording if it is
+     * null. The replay should have been started with this game's board size, randomizer and
+     * seed, before any moves were played.
+     */
+    public void setRecorder(ReplayWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Randomizer getRandomizer() {
+        return randomizer;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public boolean isGameOn() {
+        return gameOn;
+    }
+
+    public int getPieces() {
+        return pieces;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Plays games with CheeseBrain and prints how each went.
+     * Arguments (all optional): number of games, first seed, piece limit per game.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int maxPieces = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        long totalPieces = 0, totalRows = 0, totalNanos = 0;
+        for(int i = 0; i < games; i++) {
+            GameResult result = new HeadlessTetris(new CheeseBrain(), firstSeed + i).run(maxPieces);
+            System.out.println(result);
+            totalPieces += result.getPieces();
+            totalRows += result.getRowsCleared();
+            totalNanos += result.getWallNanos();
+        }
+        System.out.printf("%d games: %.1f pieces, %.1f rows on average, %.2f s total%n", games,
+                totalPieces / (double) games, totalRows / (double) games, totalNanos / 1e9);
+    }
+}
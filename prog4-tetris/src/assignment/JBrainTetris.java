@@ -2,33 +2,77 @@ package assignment;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class JBrainTetris extends JTetris {
 	 public static void main(String[] args) {
-	        createGUI(new JBrainTetris());
+	        //optional argument: number of threads the brain scores placements on
+	        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+	        if (threads < 1)
+	            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+	        //the pool lives as long as the window does
+	        JBrainTetris tetris = new JBrainTetris(new CheeseBrain(threads > 1 ? new ForkJoinPool(threads) : null));
+	        //optional argument: directory to record every game to
+	        if (args.length > 1)
+	            tetris.setReplayDirectory(Paths.get(args[1]));
+	        //optional arguments: how pieces are drawn (UNIFORM or SEVEN_BAG), and a seed to make games repeatable
+	        if (args.length > 2)
+	            tetris.setRandomizer(Randomizer.valueOf(args[2]));
+	        if (args.length > 3)
+	            tetris.setSeed(Long.parseLong(args[3]));
+	        createGUI(tetris);
 	 }
-	 
+
 	 protected static final int BRAIN_DELAY = 4;
 	 protected javax.swing.Timer brainTimer;
-	 
+
+	 // The brain only ever runs on the worker's thread, so the event thread never waits on it
+	 private final BrainWorker worker;
+
 	 JBrainTetris() {
-		 	Brain brain = new CheeseBrain();
-	        // Use timer for brain inputs
+		 	this(new CheeseBrain());
+	 }
+
+	 JBrainTetris(Brain brain) {
+	        worker = new BrainWorker(brain);
+	        // Use timer to collect the brain's decisions and ask for new ones
 	        brainTimer = new javax.swing.Timer(BRAIN_DELAY, new ActionListener() {
 	            public void actionPerformed(ActionEvent e) {
-	                tick(brain.nextMove(board));
+	                // a decision for a board that has since moved on never comes back
+	                Board.Action action = worker.poll();
+	                if (action != null)
+	                    tick(action);
+	                if (!worker.isThinking() && gameOn)
+	                    worker.think(board, getPreview());
 	            }
 	        });
 	    }
-	 
+
+	 @Override
+	 public void tick(Board.Action verb) {
+		 super.tick(verb);
+		 worker.boardChanged();
+	 }
+
 	 public void startGame() {
 		 super.startGame();
+		 worker.boardChanged();
 		 brainTimer.start();
 	 }
-	 
+
 	 public void stopGame() {
 		 super.stopGame();
 		 brainTimer.stop();
 	 }
+
+	 // The window is going away, so end the game and let the brain's thread go with it
+	 @Override
+	 public void removeNotify() {
+		 if (gameOn)
+			 stopGame();
+		 worker.close();
+		 super.removeNotify();
+	 }
 }
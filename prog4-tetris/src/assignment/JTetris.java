@@ -3,6 +3,9 @@ package assignment;
 import java.awt.*;
 import javax.swing.*;
 import java.util.*;
+import java.util.List;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.awt.event.*;
 import javax.swing.event.*;
 
@@ -18,15 +21,15 @@ import assignment.Piece.PieceType;
 public class JTetris extends JComponent {
     private static final long serialVersionUID = 1L;
     // size of the board in blocks
-    public static final int WIDTH = 10;
-    public static final int HEIGHT = 20;
+    public static final int WIDTH = Playfield.WIDTH;
+    public static final int HEIGHT = Playfield.HEIGHT;
 
     public static final int PIXELS = 16;
 
     // Extra blocks at the top for pieces to start.
     // If a piece is sticking up into this area
     // when it has landed -- game over!
-    public static final int TOP_SPACE = 4;
+    public static final int TOP_SPACE = Playfield.TOP_SPACE;
 
     /**
      * Creates a Window,
@@ -55,7 +58,7 @@ public class JTetris extends JComponent {
 
         quit.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                System.exit(0);
+                quit(frame);
             }
         });
 
@@ -66,11 +69,17 @@ public class JTetris extends JComponent {
         // Quit on window close
         frame.addWindowListener(new WindowAdapter() {
             public void windowClosing(WindowEvent e) {
-                System.exit(0);
+                quit(frame);
             }
         });
     }
 
+    // Disposes of the window first, so the game inside gets to clean up, then exits
+    private static void quit(JFrame frame) {
+        frame.dispose();
+        System.exit(0);
+    }
+
     public static void main(String[] args) {
         createGUI(new JTetris());
     }
@@ -78,6 +87,9 @@ public class JTetris extends JComponent {
     // Is drawing optimized
     protected boolean DRAW_OPTIMIZE = true;
 
+    // Board cells that changed since the last repaint request
+    private final DirtyRegion dirty = new DirtyRegion();
+
     // Board data structure
     protected Board board;
 
@@ -85,7 +97,12 @@ public class JTetris extends JComponent {
     protected boolean gameOn;    // true if we are playing
     protected int count;        // how many pieces played so far
     protected long startTime;    // used to measure elapsed time
-    protected Random random;    // the random generator for new pieces
+    protected Randomizer randomizer = Randomizer.UNIFORM;    // how new pieces are drawn
+    protected SplittableRandom seeds = new SplittableRandom();    // where each game's seed comes from
+    protected long seed;        // what the pieces were drawn from this game
+    protected PieceQueue pieces;    // this game's pieces, with the preview
+    protected Path replayDirectory;    // where games are recorded, or null
+    protected ReplayWriter recorder;   // the current game's recording, or null
 
     // Controls
     protected JLabel countLabel;
@@ -96,6 +113,7 @@ public class JTetris extends JComponent {
     protected JSlider speed;
 
     public final int DELAY = 400;    // milliseconds per tick
+    public static final int PREVIEW_SIZE = Playfield.PREVIEW_SIZE;    // how many upcoming pieces are known
 
     // The 7 canonical tetris pieces.
     public final Piece[] PIECES = new Piece[] {
@@ -191,7 +209,9 @@ public class JTetris extends JComponent {
         count = 0;
         gameOn = true;
 
-        random = new Random(); // diff seq each game
+        seed = seeds.nextLong(); // diff seq each game
+        pieces = new PieceQueue(randomizer.create(seed), PREVIEW_SIZE);
+        startRecording();
 
         enableButtons();
         timeLabel.setText(" ");
@@ -216,21 +236,92 @@ public class JTetris extends JComponent {
         gameOn = false;
         enableButtons();
         timer.stop();
+        stopRecording();
 
         long delta = (System.currentTimeMillis() - startTime)/10;
         timeLabel.setText(Double.toString(delta/100.0) + " seconds");
     }
 
     /**
-     * Selects the next piece to use using the random generator
-     * set in startGame().
+     * Records every game from now on to a file in the given directory, named after the game's
+     * seed, or stops recording if it is null. The recordings can be played back with ReplayPlayer.
+     */
+    public void setReplayDirectory(Path directory) {
+        replayDirectory = directory;
+    }
+
+    // Starts recording the new game, if recording is on
+    private void startRecording() {
+        stopRecording();
+        if (replayDirectory == null)
+            return;
+        try {
+            recorder = new ReplayWriter(replayDirectory.resolve(Long.toHexString(seed) + ".replay"),
+                    WIDTH, HEIGHT + TOP_SPACE, randomizer, seed);
+        } catch (IOException e) {
+            System.err.println("Can't record game: " + e);
+        }
+    }
+
+    // Records a move of the current game; a failed write only stops the recording
+    private void record(Board.Action verb) {
+        if (recorder == null)
+            return;
+        try {
+            if (recorder.isKeyFrameDue())
+                recorder.writeKeyFrame(board, count);
+            recorder.write(verb);
+        } catch (IOException e) {
+            System.err.println("Can't record game: " + e);
+            stopRecording();
+        }
+    }
+
+    // Finishes the current recording, if there is one
+    private void stopRecording() {
+        if (recorder == null)
+            return;
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Can't record game: " + e);
+        }
+        recorder = null;
+    }
+
+    /**
+     * Sets how pieces are drawn, from the next game on.
+     */
+    public void setRandomizer(Randomizer randomizer) {
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * Makes the games from now on reproducible: each one is seeded from a stream that starts
+     * at the given seed, so the same seed gives the same pieces game after game.
+     */
+    public void setSeed(long seed) {
+        seeds = new SplittableRandom(seed);
+    }
+
+    /**
+     * Selects the next piece to use from the queue
+     * set up in startGame().
      */
     public Piece pickNextPiece() {
-        return PIECES[random.nextInt(PIECES.length)];
+        return pieces.next();
+    }
+
+    /**
+     * Returns the pieces that will be added after the current one, soonest first.
+     */
+    public List<Piece> getPreview() {
+        return pieces.getPreview();
     }
 
     /**
-     * Adds a new random piece to the board.
+     * Adds the next piece from the queue to the board; the preview
+     * moves along behind it.
      */
     public void addNewPiece() {
         count++;
@@ -254,6 +345,15 @@ public class JTetris extends JComponent {
         if (!gameOn) {
             return;
         }
+        record(verb);
+
+        // the cells the piece covers before and after the move, and where a dropped piece
+        // lands, are all that can change, unless rows get cleared
+        int rowsCleared = board.getRowsCleared();
+        int lowestFull = DirtyRegion.lowestFullRow(board);
+        dirty.markPiece(board);
+        if (verb == Board.Action.DROP)
+            dirty.markLanding(board);
 
         Board.Result result = board.move(verb);
         switch (result) {
@@ -272,7 +372,20 @@ public class JTetris extends JComponent {
             break;
         }
 
-        repaint();
+        // everything above the lowest cleared row moved down; if no row was full beforehand
+        // there is no telling which rows went, so the whole board is redrawn
+        if (board.getRowsCleared() != rowsCleared)
+            dirty.markRowsFrom(board, lowestFull < board.getHeight() ? lowestFull : 0);
+        dirty.markPiece(board);
+        repaintDirty();
+    }
+
+    // Repaints just the pixels covering each dirty rectangle, then forgets them
+    private void repaintDirty() {
+        for (Rectangle cells : dirty.take(board.getWidth(), board.getHeight())) {
+            int x = xPixel(cells.x), y = yPixel(cells.y + cells.height - 1);
+            repaint(x, y, xPixel(cells.x + cells.width) - x + 1, yPixel(cells.y - 1) - y + 1);
+        }
     }
 
     /**
@@ -332,16 +445,6 @@ public class JTetris extends JComponent {
         final int bWidth = board.getWidth();
         final int bHeight = board.getHeight();
 
-        // Keep a set of the piece positions, so they can be rendered specially.
-        Set<Point> currentPiecePositions = new HashSet<>();
-        Piece currentPiece = board.getCurrentPiece();
-        if(currentPiece != null) {
-            Point position = board.getCurrentPiecePosition();
-            for(Point offset : currentPiece.getBody()) {
-                currentPiecePositions.add(new Point(position.x + offset.x, position.y + offset.y));
-            }
-        }
-
         // Loop through and draw all the blocks: left-right, bottom-top
         for (int x = 0; x < bWidth; x++) {
             int left = xPixel(x); // the left pixel
@@ -358,18 +461,33 @@ public class JTetris extends JComponent {
 
             // draw from 0 up to the col height
             for (int y = 0; y < bHeight; y++) {
-                Piece.PieceType pieceType = board.getGrid(x, y);
-                
-                // Special case if this position is part of the currently active piece.
-                if(currentPiecePositions.contains(new Point(x, y))) pieceType = currentPiece.getType();
+                int top = yPixel(y);
+
+                // skip this y if it is outside the clip rect
+                if (DRAW_OPTIMIZE && clip != null) {
+                    if ((yPixel(y - 1) < clip.y) || (top >= (clip.y + clip.height))) {
+                        continue;
+                    }
+                }
 
+                Piece.PieceType pieceType = board.getGrid(x, y);
                 if (pieceType != null) {
                     // +1 to leave a white border
                     g.setColor(pieceType.getColor());
-                    g.fillRect(left + 1, yPixel(y) + 1, dx, dy);
+                    g.fillRect(left + 1, top + 1, dx, dy);
                 }
             }
         }
+
+        // The active piece isn't in the grid yet, so draw it on top straight from its body
+        Piece currentPiece = board.getCurrentPiece();
+        if (currentPiece != null) {
+            Point position = board.getCurrentPiecePosition();
+            g.setColor(currentPiece.getType().getColor());
+            for (Point offset : currentPiece.getBody()) {
+                g.fillRect(xPixel(position.x + offset.x) + 1, yPixel(position.y + offset.y) + 1, dx, dy);
+            }
+        }
     }
 
     /**
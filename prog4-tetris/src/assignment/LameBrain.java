@@ -9,58 +9,69 @@ import java.util.*;
  */
 public class LameBrain implements Brain {
 
-    private ArrayList<Board> options;
-    private ArrayList<Board.Action> firstMoves;
+    // the actions still to play for the current piece
+    private Plan plan;
 
     /**
      * Decide what the next move should be based on the state of the board.
      */
     public Board.Action nextMove(Board currentBoard) {
-        // Fill the our options array with versions of the new Board
-        options = new ArrayList<>();
-        firstMoves = new ArrayList<>();
-        enumerateOptions(currentBoard);
+        Piece piece = currentBoard.getCurrentPiece();
+        if (piece == null) {
+            plan = null;
+            return Board.Action.NOTHING;
+        }
+
+        // Keep following the plan for this piece while the board is where we expect it
+        if (plan != null) {
+            Board.Action planned = plan.next(currentBoard);
+            if (planned != null) return planned;
+        }
+
+        // One scratch copy is enough: play each option onto it, score, then roll it back. Any rows
+        // the last placement filled are cleared on it, as the next move will clear them.
+        Board scratch = currentBoard.testMove(Board.Action.NOTHING);
+
+        // Fill the our options array with the places we could put the piece
+        List<Placement> options = enumerateOptions(scratch);
+        if (options.isEmpty()) return Board.Action.DROP;
 
         int best = 0;
         int bestIndex = 0;
 
         // Check all of the options and get the one with the highest score
         for (int i = 0; i < options.size(); i++) {
-            int score = scoreBoard(options.get(i));
+            List<Board.Action> actions = options.get(i).getActions();
+            for (Board.Action act : actions)
+                scratch.move(act);
+            int score = scoreBoard(scratch);
+            for (int j = 0; j < actions.size(); j++)
+                scratch.undo();
+
             if (score > best) {
                 best = score;
                 bestIndex = i;
             }
         }
-        // We want to return the first move on the way to the best Board
-        return firstMoves.get(bestIndex);
+        // Commit to the whole path to the best Board and return its first move
+        plan = new Plan(currentBoard, options.get(bestIndex).getActions());
+        return plan.next(currentBoard);
     }
 
     /**
-     * Test all of the places we can put the current Piece.
+     * Find all of the places we can put the current Piece.
      * Since this is just a Lame Brain, we aren't going to do smart
      * things like rotating pieces.
      */
-    private void enumerateOptions(Board currentBoard) {
-        // We can always drop our current Piece
-        options.add(currentBoard.testMove(Board.Action.DROP));
-        firstMoves.add(Board.Action.DROP);
-
-        // Now we'll add all the places to the left we can DROP
-        Board left = currentBoard.testMove(Board.Action.LEFT);
-        while (left.getLastResult() == Board.Result.SUCCESS) {
-            options.add(left.testMove(Board.Action.DROP));
-            firstMoves.add(Board.Action.LEFT);
-            left.move(Board.Action.LEFT);
-        }
-
-        // And then the same thing to the right
-        Board right = currentBoard.testMove(Board.Action.RIGHT);
-        while (right.getLastResult() == Board.Result.SUCCESS) {
-            options.add(right.testMove(Board.Action.DROP));
-            firstMoves.add(Board.Action.RIGHT);
-            right.move(Board.Action.RIGHT);
+    private List<Placement> enumerateOptions(Board currentBoard) {
+        List<Placement> options = new ArrayList<>();
+        for (Placement placement : currentBoard.legalPlacements(currentBoard.getCurrentPiece(),
+                currentBoard.getCurrentPiecePosition())) {
+            List<Board.Action> actions = placement.getActions();
+            if (!actions.contains(Board.Action.CLOCKWISE) && !actions.contains(Board.Action.COUNTERCLOCKWISE))
+                options.add(placement);
         }
+        return options;
     }
 
     /**
@@ -0,0 +1,202 @@
+package assignment;
+
+import java.util.Arrays;
+
+/**
+ * The undo history shared by the board implementations: a ring of fixed-size records, one per
+ * move or nextPiece, holding everything the call may overwrite. Integer fields live in one
+ * array and object fields in another, at the offsets below, so recording a move allocates
+ * nothing once the ring has grown. Only the most recent LIMIT records are kept; recording past
+ * that overwrites the oldest.
+ *
+ * Recording and undoing both work on the current record: record() starts a new one at the end
+ * of the ring, and pop() steps back to the last one so it can be read and undone.
+ */
+final class MoveJournal {
+
+	static final int KIND_MOVE = 0, KIND_PLACE = 1, KIND_NEXT_PIECE = 2;
+	// the ring doubles from 8 records until it reaches this, so keep it a power of two
+	static final int LIMIT = 1024;
+
+	// boards clear at most this many rows in one move
+	private static final int MAX_ROWS = 4;
+	private static final int J_KIND = 0, J_X = 1, J_Y = 2, J_CLEARS = 3, J_MAX_HEIGHT = 4, J_FILLED_CNT = 5,
+			J_FILLED = 6, J_PLACE_X = 10, J_PLACE_Y = 11, J_CLEARED_CNT = 12, J_CLEARED = 13, J_HASH_LO = 17,
+			J_HASH_HI = 18, J_SIZE = 19;
+	private static final int R_PIECE = 0, R_ACTION = 1, R_RESULT = 2, R_ROWS = 3, R_SIZE = 7;
+
+	private int[] ints;
+	private Object[] refs;
+	private int start, size;
+	// offsets of the current record in ints and refs
+	private int rec, ref;
+
+	/**
+	 * Starts a new record holding the board state a move or nextPiece may overwrite. The rows
+	 * the board had just filled are copied out of justFilled.
+	 */
+	void record(int kind, Piece piece, int x, int y, long hash, int rowsCleared, int maxHeight,
+			int[] justFilled, int justFilledCnt, Board.Action lastAction, Board.Result lastResult) {
+		int capacity = ints == null ? 0 : ints.length / J_SIZE;
+		if(size == capacity && capacity < LIMIT) {
+			//grow; the ring only wraps once it has reached the limit, so records are still in order
+			capacity = Math.max(8, capacity * 2);
+			ints = ints == null ? new int[capacity * J_SIZE] : Arrays.copyOf(ints, capacity * J_SIZE);
+			refs = refs == null ? new Object[capacity * R_SIZE] : Arrays.copyOf(refs, capacity * R_SIZE);
+		}
+
+		int slot = (start + size) % capacity;
+		if(size == capacity)
+			start = (start + 1) % capacity; //forget the oldest record
+		else
+			size++;
+
+		rec = slot * J_SIZE;
+		ref = slot * R_SIZE;
+		//an overwritten record may still hold cleared rows; don't keep them alive
+		Arrays.fill(refs, ref, ref + R_SIZE, null);
+
+		ints[rec + J_KIND] = kind;
+		ints[rec + J_X] = x;
+		ints[rec + J_Y] = y;
+		ints[rec + J_CLEARS] = rowsCleared;
+		ints[rec + J_MAX_HEIGHT] = maxHeight;
+		ints[rec + J_FILLED_CNT] = justFilledCnt;
+		System.arraycopy(justFilled, 0, ints, rec + J_FILLED, MAX_ROWS);
+		ints[rec + J_CLEARED_CNT] = 0;
+		ints[rec + J_HASH_LO] = (int) hash;
+		ints[rec + J_HASH_HI] = (int) (hash >>> 32);
+		refs[ref + R_PIECE] = piece;
+		refs[ref + R_ACTION] = lastAction;
+		refs[ref + R_RESULT] = lastResult;
+	}
+
+	/**
+	 * Marks the current record as the move that placed its piece with its bounding box at (x, y).
+	 */
+	void placed(int x, int y) {
+		ints[rec + J_KIND] = KIND_PLACE;
+		ints[rec + J_PLACE_X] = x;
+		ints[rec + J_PLACE_Y] = y;
+	}
+
+	/**
+	 * Notes that the current move cleared row y, keeping the row's storage so undo can put it back.
+	 */
+	void cleared(int y, Object row) {
+		int cleared = ints[rec + J_CLEARED_CNT]++;
+		ints[rec + J_CLEARED + cleared] = y;
+		refs[ref + R_ROWS + cleared] = row;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes the last record from the history and makes it the current one.
+	 */
+	void pop() {
+		if(size == 0)
+			throw new IllegalStateException("Nothing to undo");
+		size--;
+		int slot = (start + size) % (ints.length / J_SIZE);
+		rec = slot * J_SIZE;
+		ref = slot * R_SIZE;
+	}
+
+	/**
+	 * Drops the current record's references once it has been undone.
+	 */
+	void release() {
+		Arrays.fill(refs, ref, ref + R_SIZE, null);
+	}
+
+	/**
+	 * Forgets every record.
+	 */
+	void clear() {
+		start = size = 0;
+		if(refs != null)
+			Arrays.fill(refs, null);
+	}
+
+	int kind() {
+		return ints[rec + J_KIND];
+	}
+
+	Piece piece() {
+		return (Piece) refs[ref + R_PIECE];
+	}
+
+	int x() {
+		return ints[rec + J_X];
+	}
+
+	int y() {
+		return ints[rec + J_Y];
+	}
+
+	long hash() {
+		return (ints[rec + J_HASH_LO] & 0xFFFFFFFFL) | ((long) ints[rec + J_HASH_HI] << 32);
+	}
+
+	int rowsCleared() {
+		return ints[rec + J_CLEARS];
+	}
+
+	int maxHeight() {
+		return ints[rec + J_MAX_HEIGHT];
+	}
+
+	/**
+	 * Copies the rows the board had just filled into justFilled and returns how many there were.
+	 */
+	int justFilled(int[] justFilled) {
+		System.arraycopy(ints, rec + J_FILLED, justFilled, 0, MAX_ROWS);
+		return ints[rec + J_FILLED_CNT];
+	}
+
+	Board.Action lastAction() {
+		return (Board.Action) refs[ref + R_ACTION];
+	}
+
+	Board.Result lastResult() {
+		return (Board.Result) refs[ref + R_RESULT];
+	}
+
+	int placeX() {
+		return ints[rec + J_PLACE_X];
+	}
+
+	int placeY() {
+		return ints[rec + J_PLACE_Y];
+	}
+
+	int clearedCount() {
+		return ints[rec + J_CLEARED_CNT];
+	}
+
+	/**
+	 * Returns the y of the i-th row the current move cleared, as it was before the clear.
+	 */
+	int clearedRow(int i) {
+		return ints[rec + J_CLEARED + i];
+	}
+
+	/**
+	 * Returns the storage of the i-th row the current move cleared, as passed to cleared().
+	 */
+	Object clearedRowData(int i) {
+		return refs[ref + R_ROWS + i];
+	}
+
+	/**
+	 * Copies the rows the current move cleared into rows and returns how many there were.
+	 */
+	int clearedRows(int[] rows) {
+		int count = ints[rec + J_CLEARED_CNT];
+		System.arraycopy(ints, rec + J_CLEARED, rows, 0, count);
+		return count;
+	}
+}
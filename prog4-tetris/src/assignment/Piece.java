@@ -210,6 +210,14 @@ public interface Piece {
      */
     int[] getSkirt();
 
+    /**
+     * Returns the piece's body as one bitmask per row of the SRS bounding box: bit x of element y
+     * is set if the body contains the point (x, y). There is one element per row of the bounding
+     * box, so a board that keeps its rows as bitmasks can test the piece with a shift and an AND
+     * per row.
+     */
+    int[] getRowMasks();
+
     /**
      * Returns true if two pieces are the same - they are the same type and rotation.
      */
@@ -0,0 +1,47 @@
+package assignment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hands out a game's pieces in order while keeping the next few on show as a preview.
+ */
+public final class PieceQueue {
+
+    private final PieceSource source;
+    private final List<Piece> preview = new ArrayList<>();
+    private final List<Piece> previewView = Collections.unmodifiableList(preview);
+    private final int previewSize;
+
+    /**
+     * Creates a queue of the source's pieces that always shows the next previewSize of them.
+     */
+    public PieceQueue(PieceSource source, int previewSize) {
+        if(previewSize < 0)
+            throw new IllegalArgumentException("Preview size can't be negative: " + previewSize);
+        this.source = source;
+        this.previewSize = previewSize;
+        while(preview.size() < previewSize)
+            preview.add(source.next());
+    }
+
+    /**
+     * Takes the next piece, moving the preview along.
+     */
+    public Piece next() {
+        preview.add(source.next());
+        return preview.remove(0);
+    }
+
+    /**
+     * Returns the pieces next() will return, soonest first. The list is a live, read-only view.
+     */
+    public List<Piece> getPreview() {
+        return previewView;
+    }
+
+    public int getPreviewSize() {
+        return previewSize;
+    }
+}
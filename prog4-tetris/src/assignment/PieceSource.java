@@ -0,0 +1,13 @@
+package assignment;
+
+/**
+ * Where a game's pieces come from. Sources are seeded, so the same seed always gives the same
+ * pieces, and they are not thread safe: each game should have its own.
+ */
+public interface PieceSource {
+
+    /**
+     * Returns the next piece of the sequence.
+     */
+    Piece next();
+}
@@ -0,0 +1,56 @@
+package assignment;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A place a piece can come to rest on a board, along with the actions that get it there.
+ * Produced by {@link Board#legalPlacements(Piece, java.awt.Point)}.
+ */
+public final class Placement {
+
+	private final Piece piece;
+	private final int x, y;
+	private final List<Board.Action> actions;
+
+	Placement(Piece piece, int x, int y, List<Board.Action> actions) {
+		this.piece = piece;
+		this.x = x;
+		this.y = y;
+		this.actions = Collections.unmodifiableList(actions);
+	}
+
+	/**
+	 * Returns the piece, in the rotation it comes to rest in.
+	 */
+	public Piece getPiece() {
+		return piece;
+	}
+
+	/**
+	 * Returns the x of the lower-left hand corner of the resting piece's bounding box.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y of the lower-left hand corner of the resting piece's bounding box.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the actions that take the piece from its starting position to this placement;
+	 * the last action is always a DROP, which places the piece.
+	 */
+	public List<Board.Action> getActions() {
+		return actions;
+	}
+
+	@Override
+	public String toString() {
+		return piece.getType() + "/" + piece.getRotationIndex() + " at (" + x + ", " + y + ") via " + actions;
+	}
+}
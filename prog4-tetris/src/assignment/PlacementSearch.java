@@ -0,0 +1,220 @@
+package assignment;
+
+import java.awt.Point;
+import java.util.*;
+
+/**
+ * Breadth-first search over the (rotation, x, y) states a piece can reach from a starting
+ * position, using the same moves and wall kicks as the boards. Each reachable state is dropped,
+ * and every distinct resting spot is reported once, with the shortest action path to it.
+ *
+ * The boards share this through {@link Board#legalPlacements(Piece, Point)}; no intermediate
+ * boards are built, only the board's own collision check is used. Each thread keeps one search
+ * (and its scratch arrays) per board size, so repeated searches don't allocate beyond the result.
+ */
+final class PlacementSearch {
+
+	/**
+	 * A board's collision test: true if the piece with its bounding box at (x, y) would overlap
+	 * the stack or leave the board.
+	 */
+	interface Collision {
+		boolean collides(Piece piece, int x, int y);
+	}
+
+	// bounding boxes are at most 4 wide, so anything further out than this always collides
+	private static final int MARGIN = 4;
+	private static final Board.Action[] MOVES = { Board.Action.LEFT, Board.Action.RIGHT, Board.Action.DOWN,
+			Board.Action.CLOCKWISE, Board.Action.COUNTERCLOCKWISE };
+
+	private static final ThreadLocal<PlacementSearch> cache = new ThreadLocal<>();
+
+	// states are indexed rotation-major over the board padded by MARGIN on every side
+	private final int width, height, stride, rows, layer;
+
+	// scratch space; an entry only counts if its mark matches the current generation
+	private final int[] parent, landing, queue, visitMark, landMark, restMark;
+	private final byte[] via;
+	private int generation;
+
+	private final Piece[] rotations = new Piece[4];
+	private Collision collision;
+
+	private PlacementSearch(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.stride = width + 2 * MARGIN;
+		this.rows = height + 2 * MARGIN;
+		this.layer = stride * rows;
+		parent = new int[4 * layer];
+		landing = new int[4 * layer];
+		queue = new int[4 * layer];
+		visitMark = new int[4 * layer];
+		landMark = new int[4 * layer];
+		restMark = new int[4 * layer];
+		via = new byte[4 * layer];
+	}
+
+	/**
+	 * Returns every distinct resting placement of the piece reachable from the given start, in
+	 * breadth-first order. Placements that cover the same cells (e.g. a square in different
+	 * rotations) are only reported once.
+	 */
+	static List<Placement> search(int width, int height, Piece piece, Point start, Collision collision) {
+		PlacementSearch search = cache.get();
+		if(search == null || search.width != width || search.height != height) {
+			search = new PlacementSearch(width, height);
+			cache.set(search);
+		}
+
+		search.collision = collision;
+		try {
+			return search.run(piece, start);
+		} finally {
+			search.collision = null;
+		}
+	}
+
+	private int state(int rot, int x, int y) {
+		x += MARGIN;
+		y += MARGIN;
+		if(x < 0 || y < 0 || x >= stride || y >= rows)
+			return -1;
+		return rot * layer + y * stride + x;
+	}
+
+	private int rotOf(int state) { return state / layer; }
+	private int xOf(int state) { return state % stride - MARGIN; }
+	private int yOf(int state) { return state % layer / stride - MARGIN; }
+
+	// Gets kick tables as provided by Piece interface
+	private static Point[] getClockwiseKickTable(Piece p) {
+		if(p.getType() == Piece.PieceType.STICK)
+			return Piece.I_CLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+
+		return Piece.NORMAL_CLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+	}
+	private static Point[] getCounterclockwiseKickTable(Piece p) {
+		if(p.getType() == Piece.PieceType.STICK)
+			return Piece.I_COUNTERCLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+
+		return Piece.NORMAL_COUNTERCLOCKWISE_WALL_KICKS[p.getRotationIndex()];
+	}
+
+	// Returns the state the given move leads to, or -1 if the move fails (or would place the piece)
+	private int apply(int rot, int x, int y, Board.Action move) {
+		Piece piece = rotations[rot];
+		switch(move) {
+		case LEFT:
+			return collision.collides(piece, x - 1, y) ? -1 : state(rot, x - 1, y);
+		case RIGHT:
+			return collision.collides(piece, x + 1, y) ? -1 : state(rot, x + 1, y);
+		case DOWN:
+			return collision.collides(piece, x, y - 1) ? -1 : state(rot, x, y - 1);
+		case CLOCKWISE:
+			return kick(piece.clockwisePiece(), getClockwiseKickTable(piece), x, y);
+		case COUNTERCLOCKWISE:
+			return kick(piece.counterclockwisePiece(), getCounterclockwiseKickTable(piece), x, y);
+		default:
+			return -1;
+		}
+	}
+
+	// The first kick that fits wins, exactly as on the board
+	private int kick(Piece rotated, Point[] kicks, int x, int y) {
+		for(Point k : kicks)
+			if(!collision.collides(rotated, x + k.x, y + k.y))
+				return state(rotated.getRotationIndex(), x + k.x, y + k.y);
+		return -1;
+	}
+
+	private List<Placement> run(Piece piece, Point start) {
+		List<Placement> placements = new ArrayList<>();
+		Piece rotated = piece;
+		for(int i = 0; i < 4; i++, rotated = rotated.clockwisePiece())
+			rotations[rotated.getRotationIndex()] = rotated;
+
+		int first = state(piece.getRotationIndex(), start.x, start.y);
+		if(first < 0 || collision.collides(piece, start.x, start.y))
+			return placements;
+
+		//a new generation invalidates every mark left over from the last search
+		if(++generation == 0) {
+			Arrays.fill(visitMark, 0);
+			Arrays.fill(landMark, 0);
+			Arrays.fill(restMark, 0);
+			generation = 1;
+		}
+		Set<Long> seen = new HashSet<>();
+
+		int head = 0, tail = 0;
+		queue[tail++] = first;
+		visitMark[first] = generation;
+		parent[first] = -1;
+
+		while(head < tail) {
+			int state = queue[head++];
+			int rot = rotOf(state), x = xOf(state), y = yOf(state);
+
+			//dropping from here is always a placement
+			int rest = land(rot, x, y);
+			if(restMark[rest] != generation) {
+				restMark[rest] = generation;
+				if(seen.add(cellKey(rest)))
+					placements.add(new Placement(rotations[rotOf(rest)], xOf(rest), yOf(rest), path(state)));
+			}
+
+			for(int m = 0; m < MOVES.length; m++) {
+				int next = apply(rot, x, y, MOVES[m]);
+				if(next < 0 || visitMark[next] == generation)
+					continue;
+				visitMark[next] = generation;
+				parent[next] = state;
+				via[next] = (byte) m;
+				queue[tail++] = next;
+			}
+		}
+		return placements;
+	}
+
+	// Returns the state the piece rests in when dropped from the given one, memoising each column
+	private int land(int rot, int x, int y) {
+		//states in the same column are stride apart
+		int top = state(rot, x, y), cur = top;
+		while(landMark[cur] != generation && !collision.collides(rotations[rot], x, y - 1)) {
+			cur -= stride;
+			y--;
+		}
+		int rest = landMark[cur] == generation ? landing[cur] : cur;
+		for(int fill = top; fill >= cur; fill -= stride) {
+			landing[fill] = rest;
+			landMark[fill] = generation;
+		}
+		return rest;
+	}
+
+	// Identifies a resting spot by the cells it covers, so equivalent rotations collapse together
+	private long cellKey(int state) {
+		int x = xOf(state), y = yOf(state);
+		Point[] body = rotations[rotOf(state)].getBody();
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		for(Point p : body) {
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+		}
+		long shape = 0;
+		for(Point p : body)
+			shape |= 1L << ((p.y - minY) * 4 + (p.x - minX));
+		return ((long) (y + minY + MARGIN) << 40) | ((long) (x + minX + MARGIN) << 20) | shape;
+	}
+
+	// Walks the parent links back to the start, finishing with the DROP
+	private List<Board.Action> path(int state) {
+		ArrayList<Board.Action> actions = new ArrayList<>();
+		actions.add(Board.Action.DROP);
+		for(int cur = state; parent[cur] >= 0; cur = parent[cur])
+			actions.add(MOVES[via[cur]]);
+		Collections.reverse(actions);
+		return actions;
+	}
+}
@@ -0,0 +1,46 @@
+package assignment;
+
+import java.util.List;
+
+/**
+ * A sequence of actions a brain has committed to, along with the board it expects to see
+ * before each one. Brains hand out one action per call to nextMove; as long as the board
+ * matches what the plan predicts, the rest of the plan can be replayed without searching
+ * again. Anything else moving the piece (such as the game's gravity ticks) shows up as a
+ * mismatch, and the brain should plan again from the board it was given.
+ */
+final class Plan {
+
+	private final List<Board.Action> actions;
+
+	// expected[i] is the Zobrist hash of the board just before actions[i] is played
+	private final long[] expected;
+	private int step;
+
+	/**
+	 * Plans to play the given actions on the board, starting now.
+	 */
+	Plan(Board board, List<Board.Action> actions) {
+		this.actions = actions;
+		expected = new long[actions.size()];
+		if(expected.length == 0)
+			return;
+
+		expected[0] = board.getZobristHash();
+		Board scratch = board.testMove(Board.Action.NOTHING);
+		for(int i = 1; i < expected.length; i++) {
+			scratch.move(actions.get(i - 1));
+			expected[i] = scratch.getZobristHash();
+		}
+	}
+
+	/**
+	 * Returns the next action of the plan if the board is in the state the plan expects,
+	 * or null if the plan is finished or no longer applies.
+	 */
+	Board.Action next(Board board) {
+		if(step >= actions.size() || board.getZobristHash() != expected[step])
+			return null;
+		return actions.get(step++);
+	}
+}
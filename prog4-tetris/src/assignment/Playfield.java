@@ -0,0 +1,20 @@
+package assignment;
+
+/**
+ * The size of the standard playfield, shared by the GUI, the headless game and the brains so
+ * none of them has to depend on another for it. Boards are HEIGHT + TOP_SPACE rows tall: pieces
+ * spawn in the top TOP_SPACE rows, and a piece that lands there ends the game.
+ */
+public final class Playfield {
+    // size of the visible board in blocks
+    public static final int WIDTH = 10;
+    public static final int HEIGHT = 20;
+
+    // extra rows at the top for pieces to start in
+    public static final int TOP_SPACE = 4;
+
+    // how many upcoming pieces are known
+    public static final int PREVIEW_SIZE = 3;
+
+    private Playfield() {}
+}
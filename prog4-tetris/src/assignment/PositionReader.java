@@ -0,0 +1,103 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a corpus written by {@link PositionWriter} straight out of a memory-mapped file, in
+ * order or by index. Positions are restored onto boards the caller passes in, so a corpus of
+ * any size can be walked with a single board and without copying the file onto the heap.
+ *
+ * The file is mapped in chunks of whole records, since one mapping can't exceed 2GB. A reader
+ * keeps a read position and decodes through one BoardCodec, so it should only be used by one
+ * thread at a time; threads can each open their own reader on the same file.
+ */
+public final class PositionReader implements Closeable {
+
+	// the most bytes mapped at once
+	private static final long CHUNK_BYTES = 1 << 30;
+
+	private final FileChannel channel;
+	private final BoardCodec codec;
+	private final ByteBuffer[] chunks;
+	private final long count;
+	private final int perChunk;
+	private long next;
+
+	public PositionReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(PositionWriter.HEADER_SIZE);
+			while(header.hasRemaining() && channel.read(header, header.position()) > 0);
+			header.flip();
+			if(header.limit() < PositionWriter.HEADER_SIZE || header.getInt() != PositionWriter.MAGIC)
+				throw new IOException("Not a position file: " + file);
+			byte version = header.get();
+			if(version != PositionWriter.VERSION)
+				throw new IOException("Unsupported position file version " + version + ": " + file);
+			codec = new BoardCodec(header.getShort(), header.getShort());
+
+			//a record cut short by a crash while writing is left out
+			int recordSize = codec.getRecordSize();
+			count = (channel.size() - PositionWriter.HEADER_SIZE) / recordSize;
+			perChunk = (int) Math.max(1, CHUNK_BYTES / recordSize);
+			chunks = new ByteBuffer[(int) ((count + perChunk - 1) / perChunk)];
+			for(int i = 0; i < chunks.length; i++) {
+				long records = Math.min(perChunk, count - (long) i * perChunk);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						PositionWriter.HEADER_SIZE + (long) i * perChunk * recordSize, records * recordSize);
+			}
+		} catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getWidth() {
+		return codec.getWidth();
+	}
+
+	public int getHeight() {
+		return codec.getHeight();
+	}
+
+	/**
+	 * Returns the number of positions in the corpus.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Restores the given position onto the board, which must be the corpus's size, and carries
+	 * on from the position after it.
+	 */
+	public void read(long index, Board board) {
+		if(index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("No position " + index + " in a corpus of " + count);
+		ByteBuffer chunk = chunks[(int) (index / perChunk)];
+		chunk.position((int) (index % perChunk) * codec.getRecordSize());
+		codec.read(chunk, board);
+		next = index + 1;
+	}
+
+	public boolean hasNext() {
+		return next < count;
+	}
+
+	/**
+	 * Restores the next position onto the board.
+	 */
+	public void next(Board board) {
+		read(next, board);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
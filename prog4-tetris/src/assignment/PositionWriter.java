@@ -0,0 +1,87 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a corpus of board positions, all the same size, to a file through a direct buffer.
+ * The file is laid out as (big-endian):
+ * <pre>
+ *   "TPOS"  version:1  width:2  height:2
+ *   BoardCodec records, back to back
+ * </pre>
+ * Every record is the same size, so the number of positions follows from the file size and
+ * {@link PositionReader} can go straight to any one of them.
+ */
+public final class PositionWriter implements Closeable {
+
+	static final int MAGIC = 0x54504F53; // "TPOS"
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = 9;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final BoardCodec codec;
+	private final ByteBuffer buffer;
+	private long count;
+
+	/**
+	 * Starts a corpus of boards of the given size, replacing any file already there.
+	 */
+	public PositionWriter(Path file, int width, int height) throws IOException {
+		codec = new BoardCodec(width, height);
+		buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, HEADER_SIZE + codec.getRecordSize()));
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer.putInt(MAGIC).put(VERSION).putShort((short) width).putShort((short) height);
+	}
+
+	/**
+	 * Appends the board's position to the corpus.
+	 */
+	public void write(Board board) throws IOException {
+		if(buffer.remaining() < codec.getRecordSize())
+			flush();
+		codec.write(board, buffer);
+		count++;
+	}
+
+	/**
+	 * Appends every board's position to the corpus.
+	 */
+	public void writeAll(Iterable<? extends Board> boards) throws IOException {
+		for(Board board : boards)
+			write(board);
+	}
+
+	/**
+	 * Returns the number of positions written so far.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	// Writes out everything buffered so far
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(!channel.isOpen())
+			return;
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
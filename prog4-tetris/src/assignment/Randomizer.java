@@ -0,0 +1,84 @@
+package assignment;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * The ways pieces can be drawn for a game, each creating a {@link PieceSource} from a seed.
+ */
+public enum Randomizer {
+
+    /**
+     * Every piece is picked uniformly at random from the 7, independently of the others, as
+     * JTetris always has; the same seed gives the same pieces as before this existed. Long
+     * runs without a given piece are possible.
+     */
+    UNIFORM {
+        @Override
+        public PieceSource create(long seed) {
+            return new UniformSource(new Random(seed));
+        }
+    },
+
+    /**
+     * The 7 pieces are dealt from a shuffled bag, which is refilled and reshuffled once empty,
+     * so every piece turns up once in every 7 and at most 12 others come between two of a kind.
+     */
+    SEVEN_BAG {
+        @Override
+        public PieceSource create(long seed) {
+            return new BagSource(new SplittableRandom(seed));
+        }
+    };
+
+    // The 7 canonical tetris pieces, in the same order as JTetris.
+    private static final Piece[] PIECES = new Piece[] {
+        new TetrisPiece(Piece.PieceType.STICK),
+        new TetrisPiece(Piece.PieceType.SQUARE),
+        new TetrisPiece(Piece.PieceType.T),
+        new TetrisPiece(Piece.PieceType.LEFT_L),
+        new TetrisPiece(Piece.PieceType.RIGHT_L),
+        new TetrisPiece(Piece.PieceType.LEFT_DOG),
+        new TetrisPiece(Piece.PieceType.RIGHT_DOG)
+    };
+
+    /**
+     * Creates a source that draws pieces this way, starting from the given seed.
+     */
+    public abstract PieceSource create(long seed);
+
+    private static final class UniformSource implements PieceSource {
+        private final Random random;
+
+        UniformSource(Random random) {
+            this.random = random;
+        }
+
+        @Override
+        public Piece next() {
+            return PIECES[random.nextInt(PIECES.length)];
+        }
+    }
+
+    private static final class BagSource implements PieceSource {
+        private final SplittableRandom random;
+        private final Piece[] bag = PIECES.clone();
+        private int left;    // bag[0..left) are still to be dealt
+
+        BagSource(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public Piece next() {
+            if(left == 0)
+                left = bag.length;
+            //deal a random piece from the rest of the bag, swapping it behind them
+            int i = random.nextInt(left--);
+            Piece piece = bag[i];
+            bag[i] = bag[left];
+            bag[left] = piece;
+            return piece;
+        }
+    }
+}
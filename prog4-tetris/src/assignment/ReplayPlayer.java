@@ -0,0 +1,65 @@
+package assignment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Plays recorded games back into a headless board as fast as the board can move. The pieces
+ * are drawn by the recorded randomizer from the recorded seed, as in JTetris and HeadlessTetris,
+ * so feeding the recorded actions back in rebuilds the game exactly. Keyframes let a game be
+ * picked up at any move without replaying everything before it.
+ */
+public class ReplayPlayer {
+
+    /**
+     * Replays the file onto a new TetrisBoard and returns the finished game.
+     */
+    public static HeadlessTetris replay(Path file) throws IOException {
+        try(ReplayReader reader = new ReplayReader(file)) {
+            HeadlessTetris game = new HeadlessTetris(new TetrisBoard(reader.getWidth(), reader.getHeight()),
+                    null, reader.getRandomizer(), reader.getSeed());
+            while(reader.hasNext())
+                game.play(reader.next());
+            return game;
+        }
+    }
+
+    /**
+     * Returns the recorded game as it was just before the given move was played, restoring the
+     * nearest keyframe before it and replaying only the actions in between. The game can be
+     * played on from there. Throws an IllegalArgumentException if the file has no keyframe at or
+     * before the move.
+     */
+    public static HeadlessTetris seek(Path file, long move) throws IOException {
+        try(ReplayReader reader = new ReplayReader(file)) {
+            if(move < 0 || move > reader.getMoves())
+                throw new IllegalArgumentException("Replay has no move " + move);
+            Board board = new TetrisBoard(reader.getWidth(), reader.getHeight());
+            int pieces = reader.seek(move, board);
+            HeadlessTetris game = new HeadlessTetris(board, null, reader.getRandomizer(), reader.getSeed(),
+                    pieces, reader.getPosition());
+            while(reader.getPosition() < move)
+                game.play(reader.next());
+            return game;
+        }
+    }
+
+    /**
+     * Replays the file and reports how the game went.
+     */
+    public static GameResult play(Path file) throws IOException {
+        long start = System.nanoTime();
+        HeadlessTetris game = replay(file);
+        return new GameResult(game.getSeed(), game.getPieces(), game.getBoard().getRowsCleared(),
+                game.getMoves(), System.nanoTime() - start, !game.isGameOn());
+    }
+
+    /**
+     * Replays each file named on the command line and prints how the game went.
+     */
+    public static void main(String[] args) throws IOException {
+        for(String name : args)
+            System.out.println(name + ": " + play(Paths.get(name)));
+    }
+}
@@ -0,0 +1,194 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads back a replay written by {@link ReplayWriter}, one action at a time, or from any move
+ * onwards by way of the keyframe index. The file is memory-mapped, so neither reading it nor
+ * searching the index copies it onto the heap.
+ */
+public final class ReplayReader implements Closeable {
+
+	private static final Board.Action[] ACTIONS = Board.Action.values();
+
+	private final FileChannel channel;
+	private final MappedByteBuffer data;
+	private final int width, height;
+	private final Randomizer randomizer;
+	private final long seed, moves;
+	private final int indexStart, keyFrames, keyFrameSize;
+	private long read;
+
+	// the next keyframe the actions will run into
+	private int nextKeyFrame;
+
+	// bits of the current byte that haven't been decoded yet
+	private int bits, bitCount;
+
+	private final BoardCodec codec;
+
+	/**
+	 * Opens a replay written by ReplayWriter. Throws an IOException if the file isn't a finished
+	 * replay in the current format version, or is too big to map in one piece (2 GB, a few
+	 * billion actions).
+	 */
+	public ReplayReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			checkSize(size, file);
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if(data.limit() < 5 || data.getInt() != ReplayWriter.MAGIC)
+				throw new IOException("Not a replay file: " + file);
+			byte version = data.get();
+			if(version != ReplayWriter.VERSION)
+				throw new IOException("Unsupported replay version " + version + ": " + file);
+			if(data.limit() < ReplayWriter.HEADER_SIZE)
+				throw new IOException("Not a replay file: " + file);
+			width = data.getShort();
+			height = data.getShort();
+			int kind = data.get();
+			if(kind < 0 || kind >= Randomizer.values().length)
+				throw new IOException("Unknown randomizer " + kind + ": " + file);
+			randomizer = Randomizer.values()[kind];
+			seed = data.getLong();
+			moves = data.getLong();
+			codec = new BoardCodec(width, height);
+			keyFrameSize = ReplayWriter.KEYFRAME_HEADER_SIZE + codec.getRecordSize();
+			long indexOffset = data.getLong();
+			if(indexOffset < ReplayWriter.HEADER_SIZE || indexOffset + 4 > data.limit())
+				throw new IOException("Replay was not finished: " + file);
+			indexStart = (int) indexOffset + 4;
+			keyFrames = data.getInt((int) indexOffset);
+		} catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// Throws if a file of the given size is too big to map in one piece
+	static void checkSize(long size, Path file) throws IOException {
+		if(size > Integer.MAX_VALUE)
+			throw new IOException("Replay is " + size + " bytes, more than the " + Integer.MAX_VALUE
+					+ " that can be read: " + file);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the randomizer the game's pieces were drawn by.
+	 */
+	public Randomizer getRandomizer() {
+		return randomizer;
+	}
+
+	/**
+	 * Returns the seed the game's pieces were drawn with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the number of actions in the replay.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Returns the number of actions read so far, counting any skipped by seek.
+	 */
+	public long getPosition() {
+		return read;
+	}
+
+	/**
+	 * Returns the number of keyframes in the replay.
+	 */
+	public int getKeyFrames() {
+		return keyFrames;
+	}
+
+	public boolean hasNext() {
+		return read < moves;
+	}
+
+	/**
+	 * Returns the next action of the game.
+	 */
+	public Board.Action next() {
+		if(read >= moves)
+			throw new IllegalStateException("No actions left in the replay");
+		while(nextKeyFrame < keyFrames && keyFrameMove(nextKeyFrame) == read)
+			skipTo(nextKeyFrame);
+		if(bitCount < ReplayWriter.ACTION_BITS) {
+			bits |= (data.get() & 0xFF) << bitCount;
+			bitCount += 8;
+		}
+		Board.Action action = ACTIONS[bits & ((1 << ReplayWriter.ACTION_BITS) - 1)];
+		bits >>>= ReplayWriter.ACTION_BITS;
+		bitCount -= ReplayWriter.ACTION_BITS;
+		read++;
+		return action;
+	}
+
+	/**
+	 * Restores the board, which must be the replay's size, to the last keyframe at or before
+	 * the given move, and carries on reading from there; the actions up to the move itself still
+	 * have to be played. Returns the number of pieces that had entered the game at the keyframe.
+	 * Throws an IllegalArgumentException if there is no such keyframe.
+	 */
+	public int seek(long move, Board board) {
+		//binary search for the last keyframe at or before the move
+		int lo = 0, hi = keyFrames - 1, found = -1;
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if(keyFrameMove(mid) <= move) {
+				found = mid;
+				lo = mid + 1;
+			} else
+				hi = mid - 1;
+		}
+		if(found < 0)
+			throw new IllegalArgumentException("No keyframe at or before move " + move);
+
+		int pieces = data.getInt(keyFrameOffset(found));
+		read = keyFrameMove(found);
+		data.position(keyFrameOffset(found) + ReplayWriter.KEYFRAME_HEADER_SIZE);
+		codec.read(data, board);
+		skipTo(found);
+		return pieces;
+	}
+
+	// Moves past the given keyframe to the actions that follow it
+	private void skipTo(int keyFrame) {
+		data.position(keyFrameOffset(keyFrame) + keyFrameSize);
+		bits = bitCount = 0;
+		nextKeyFrame = keyFrame + 1;
+	}
+
+	private long keyFrameMove(int keyFrame) {
+		return data.getLong(indexStart + keyFrame * ReplayWriter.INDEX_ENTRY_SIZE);
+	}
+
+	private int keyFrameOffset(int keyFrame) {
+		return (int) data.getLong(indexStart + keyFrame * ReplayWriter.INDEX_ENTRY_SIZE + 8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
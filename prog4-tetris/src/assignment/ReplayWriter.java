@@ -0,0 +1,186 @@
+package assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records a game so it can be replayed exactly: the board size and the seed the pieces are
+ * drawn with, followed by every action given to the game. Each action takes 3 bits.
+ *
+ * Every so often the game also writes a keyframe, a snapshot of the board between two actions,
+ * so a reader can jump to any move by restoring the nearest keyframe and replaying only the
+ * actions after it. The keyframes are listed in an index at the end of the file.
+ *
+ * The file is laid out as (big-endian):
+ * <pre>
+ *   "TRPL"  version:1  width:2  height:2  randomizer:1  seed:8  moves:8  indexOffset:8
+ *   actions, 3 bits each, starting from the low bits of each byte, with keyframes between them
+ *   index: count:4, then count times (moves:8 offset:8)
+ * </pre>
+ * A keyframe starts on a fresh byte and holds the number of pieces that had entered the game
+ * followed by a BoardCodec record; the actions after it start on a fresh byte too. An action is
+ * stored as its position in {@link Board.Action}, and the randomizer as its position in
+ * {@link Randomizer}, so those orders are part of the format.
+ */
+public final class ReplayWriter implements Closeable {
+
+	static final int MAGIC = 0x5452504C; // "TRPL"
+	static final byte VERSION = 3;
+	static final int MOVES_OFFSET = 18, INDEX_OFFSET = 26, HEADER_SIZE = 34;
+	static final int ACTION_BITS = 3;
+	static final int KEYFRAME_HEADER_SIZE = 4, INDEX_ENTRY_SIZE = 16;
+
+	/** How many actions apart keyframes are by default. */
+	public static final int KEYFRAME_INTERVAL = 4096;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final int keyFrameInterval;
+	private final BoardCodec codec;
+	private long moves, flushed;
+	private boolean closed;
+
+	// actions not yet written out as whole bytes
+	private int bits, bitCount;
+
+	// the move and file offset of each keyframe, in pairs
+	private long[] index = new long[16];
+	private int keyFrames;
+
+	/**
+	 * Starts a replay file for a game on a board of the given size whose pieces come from the
+	 * given seed with the uniform randomizer, replacing any file already there.
+	 */
+	public ReplayWriter(Path file, int width, int height, long seed) throws IOException {
+		this(file, width, height, Randomizer.UNIFORM, seed, KEYFRAME_INTERVAL);
+	}
+
+	/**
+	 * Starts a replay file for a game on a board of the given size whose pieces the randomizer
+	 * draws from the given seed, replacing any file already there.
+	 */
+	public ReplayWriter(Path file, int width, int height, Randomizer randomizer, long seed) throws IOException {
+		this(file, width, height, randomizer, seed, KEYFRAME_INTERVAL);
+	}
+
+	/**
+	 * Starts a replay file like ReplayWriter(file, width, height, randomizer, seed) that asks for
+	 * a keyframe every keyFrameInterval actions.
+	 */
+	public ReplayWriter(Path file, int width, int height, Randomizer randomizer, long seed, int keyFrameInterval)
+			throws IOException {
+		if(keyFrameInterval < 1)
+			throw new IllegalArgumentException("Keyframe interval must be positive: " + keyFrameInterval);
+		this.keyFrameInterval = keyFrameInterval;
+		this.codec = new BoardCodec(width, height);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		//the move count and index offset are filled in on close
+		buffer.putInt(MAGIC).put(VERSION).putShort((short) width).putShort((short) height)
+				.put((byte) randomizer.ordinal()).putLong(seed).putLong(0).putLong(0);
+	}
+
+	/**
+	 * Appends the next action of the game.
+	 */
+	public void write(Board.Action action) throws IOException {
+		bits |= action.ordinal() << bitCount;
+		bitCount += ACTION_BITS;
+		moves++;
+		if(bitCount >= 8) {
+			ensureRemaining(1);
+			buffer.put((byte) bits);
+			bits >>>= 8;
+			bitCount -= 8;
+		}
+	}
+
+	/**
+	 * Returns true if the game should write a keyframe before its next action.
+	 */
+	public boolean isKeyFrameDue() {
+		return moves % keyFrameInterval == 0 && (keyFrames == 0 || index[2 * keyFrames - 2] != moves);
+	}
+
+	/**
+	 * Writes a keyframe of the game as it is before its next action: the board, and how many
+	 * pieces have entered it so far.
+	 */
+	public void writeKeyFrame(Board board, int pieces) throws IOException {
+		if(board.getWidth() != codec.getWidth() || board.getHeight() != codec.getHeight())
+			throw new IllegalArgumentException("Board is not the size the replay was started with");
+		ensureRemaining(1 + KEYFRAME_HEADER_SIZE + codec.getRecordSize());
+		padActions();
+
+		if(2 * keyFrames == index.length)
+			index = Arrays.copyOf(index, index.length * 2);
+		index[2 * keyFrames] = moves;
+		index[2 * keyFrames + 1] = flushed + buffer.position();
+		keyFrames++;
+
+		buffer.putInt(pieces);
+		codec.write(board, buffer);
+	}
+
+	/**
+	 * Returns the number of actions written so far.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	// Writes out any leftover action bits, so whatever comes next starts on a fresh byte
+	private void padActions() {
+		if(bitCount > 0) {
+			buffer.put((byte) bits);
+			bits = bitCount = 0;
+		}
+	}
+
+	// Makes room in the buffer for the given number of bytes
+	private void ensureRemaining(int bytes) throws IOException {
+		if(buffer.remaining() < bytes)
+			flush();
+	}
+
+	// Writes out everything buffered so far
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			flushed += channel.write(buffer);
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+		closed = true;
+		try {
+			ensureRemaining(1);
+			padActions();
+
+			long indexOffset = flushed + buffer.position();
+			ensureRemaining(4);
+			buffer.putInt(keyFrames);
+			for(int i = 0; i < keyFrames; i++) {
+				ensureRemaining(INDEX_ENTRY_SIZE);
+				buffer.putLong(index[2 * i]).putLong(index[2 * i + 1]);
+			}
+			flush();
+
+			ByteBuffer header = ByteBuffer.allocate(16).putLong(0, moves).putLong(8, indexOffset);
+			while(header.hasRemaining())
+				channel.write(header, MOVES_OFFSET + header.position());
+		} finally {
+			channel.close();
+		}
+	}
+}
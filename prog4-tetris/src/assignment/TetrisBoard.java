@@ -2,6 +2,7 @@ package assignment;
 
 import java.awt.*;
 import java.util.Arrays;
+import java.util.List;
 
 import assignment.Piece.PieceType;
 
@@ -14,15 +15,40 @@ public final class TetrisBoard implements Board {
 
     
 	private Piece.PieceType[][] board;
+	// the generation each row was last written in; a row stamped with any other generation may be
+	// shared with a copy of this board, and must be copied before writing
+	private long[] rowGens;
+	// bumped on both this board and the copy whenever a copy is made, so the rows they share are
+	// stamped below either side's generation and neither one writes to them in place
+	private long generation;
+	// generations count up from 0, so no row stamped with this is ever owned
+	private static final long NOT_OWNED = -1;
 	private Piece curPiece;
-	private Point curPos;
+	private int curX, curY;
 	private int width, height, rowClearCnt, maxHeight;
 	private int[] heights, widths;
 	private Action lastAction;
 	private Result lastResult;
+	// Zobrist hash of the grid and current piece
+	private long hash;
+	// hash of each row's cells, kept so moving a row only has to re-mix its hash
+	private long[] rowHashes;
+	// null until a listener is added; copies never share it
+	private BoardListeners listeners;
+	// which entry of the kick table the last successful rotation used
+	private int kick;
+
+	// rows filled by the most recent placement; these are only cleared on the following move
+	private int[] justFilled = new int[4];
+	private int justFilledCnt;
+
+	// undo history; copies start with an empty one
+	private final MoveJournal journal = new MoveJournal();
 
     public TetrisBoard(int width, int height) {
     	board = new Piece.PieceType[height][width];
+    	rowGens = new long[height];
+    	rowHashes = new long[height];
     	this.width = width;
     	this.height = height;
     	this.heights = new int[width];
@@ -35,37 +61,114 @@ public final class TetrisBoard implements Board {
     	height = copy.getHeight();
     	rowClearCnt = copy.getRowsCleared();
     	curPiece = copy.getCurrentPiece();
-    	curPos = copy.getCurrentPiecePosition();
+    	curX = copy.curX;
+    	curY = copy.curY;
     	lastAction = copy.getLastAction();
     	lastResult = copy.getLastResult();
     	maxHeight = copy.getMaxHeight();
+    	hash = copy.hash;
+    	rowHashes = Arrays.copyOf(copy.rowHashes, height);
     	
-        //deep copy to avoid pointer issues
-    	board = new Piece.PieceType[height][];
-    	for(int y = 0; y < height; y++)
-    		board[y] = Arrays.copyOf(copy.board[y], width);
+        //share rows with the original; whichever board writes to a row first copies it
+    	board = Arrays.copyOf(copy.board, height);
+    	rowGens = Arrays.copyOf(copy.rowGens, height);
+    	generation = ++copy.generation;
     	
     	heights = Arrays.copyOf(copy.heights, width);
     	widths = Arrays.copyOf(copy.widths, height);
+    	justFilled = Arrays.copyOf(copy.justFilled, justFilled.length);
+    	justFilledCnt = copy.justFilledCnt;
     }
     
-    // Checks if a given piece and position will collide with anything
-    private boolean checkPieceCollision(Piece piece, Point pos) {
+    // Starts a new journal record holding everything a move or nextPiece may overwrite
+    private void record(int kind) {
+    	journal.record(kind, curPiece, curX, curY, hash, rowClearCnt, maxHeight, justFilled, justFilledCnt,
+    			lastAction, lastResult);
+    }
+
+    // Puts rows removed by clearLines back, given the record that removed them
+    private void restoreLines() {
+    	int cleared = journal.clearedCount();
+
+        //replay clearLines' swaps in reverse, moving the surviving rows back up
+    	for(int y = height-1; y >= 0; y--) {
+    		int shiftY = 0;
+    		boolean wasCleared = false;
+    		for(int i = 0; i < cleared; i++) {
+    			int clearedY = journal.clearedRow(i);
+    			if(clearedY < y) shiftY++;
+    			else if(clearedY == y) wasCleared = true;
+    		}
+    		if(wasCleared || shiftY == 0)
+    			continue;
+    		Piece.PieceType[] row = board[y];
+    		board[y] = board[y-shiftY];
+    		board[y-shiftY] = row;
+    		long rowGen = rowGens[y];
+    		rowGens[y] = rowGens[y-shiftY];
+    		rowGens[y-shiftY] = rowGen;
+    		long rowHash = rowHashes[y];
+    		rowHashes[y] = rowHashes[y-shiftY];
+    		rowHashes[y-shiftY] = rowHash;
+    	}
+
+        //the empty rows are now where the cleared ones were
+    	for(int i = 0; i < cleared; i++) {
+    		int y = journal.clearedRow(i);
+    		board[y] = (Piece.PieceType[]) journal.clearedRowData(i);
+    		rowGens[y] = NOT_OWNED;
+    		rowHashes[y] = Zobrist.rowHash(this, y);
+    	}
+    }
+
+    // Returns row y, copying it first if it may be shared with another board
+    private Piece.PieceType[] writableRow(int y) {
+    	if(rowGens[y] != generation) {
+    		board[y] = Arrays.copyOf(board[y], width);
+    		rowGens[y] = generation;
+    	}
+    	return board[y];
+    }
+
+    // Checks if a given piece with its bounding box at (x, y) will collide with anything
+    private boolean checkPieceCollision(Piece piece, int x, int y) {
     	Point[] body = piece.getBody();
 
         // Make sure each point in the body is empty
     	for(Point bodyPoint : body)
-    		if(checkPointCollision(new Point(pos.x+bodyPoint.x, pos.y+bodyPoint.y)))
+    		if(checkPointCollision(x+bodyPoint.x, y+bodyPoint.y))
     			return true;
     	return false;
     }
     
     // Checks if a given position contains a block (used for collisions)
-    private boolean checkPointCollision(Point pos) {
-    	int x = pos.x, y = pos.y;
+    private boolean checkPointCollision(int x, int y) {
     	if(x < 0 || x >= width || y < 0 || y >= height)
     		return true;
-    	return getGrid(x,y) != null;
+    	return board[y][x] != null;
+    }
+
+    // Finds the row a hard drop lands the current piece on, straight from the column heights
+    private int dropRow() {
+    	int[] skirt = curPiece.getSkirt();
+    	int row = Integer.MIN_VALUE;
+    	for(int i = 0; i < skirt.length; i++) {
+    		if(skirt[i] == Integer.MAX_VALUE)
+    			continue;
+    		//the piece is tucked under an overhang here, so only scanning down is safe
+    		if(curY + skirt[i] < heights[curX+i])
+    			return scanDropRow();
+    		row = Math.max(row, heights[curX+i] - skirt[i]);
+    	}
+    	return row;
+    }
+
+    // Moves the piece down one row at a time until it collides with something
+    private int scanDropRow() {
+    	int y = curY;
+    	while(!checkPieceCollision(curPiece, curX, y-1))
+    		y--;
+    	return y;
     }
     
 
@@ -83,23 +186,64 @@ public final class TetrisBoard implements Board {
 		return Piece.NORMAL_COUNTERCLOCKWISE_WALL_KICKS[p.getRotationIndex()];
     }
     
-    // Scans through board and clears lines, shifting when appropriate and updating count
+    // Scans through board and clears lines, shifting when appropriate and updating count.
+    // Rows filled by the current move are left for the next one.
     private void clearLines() {
         //how far to shift each line
     	int shiftY = 0;
     	for(int y = 0; y < height; y++) {
+    		int filledIndex = justFilledIndex(y);
             //check if a line is completely filled
-    		if(getRowWidth(y) == width) {
+    		if(widths[y] == width && filledIndex < 0) {
+                //keep the row for undo; it is no longer ours to reuse
+    			journal.cleared(y, board[y]);
+    			rowGens[y] = NOT_OWNED;
+    			hash ^= Zobrist.row(rowHashes[y], y);
+
                 //update clear count and shift
     			shiftY++;
     			rowClearCnt++;
-    		} else {
-                //shift row down, and replace the old row with an empty one
+    		} else if(shiftY > 0) {
+                //shift row down, swapping the cleared row up so it can be reused
     			Piece.PieceType[] row = board[y];
-    			board[y] = new Piece.PieceType[width];
+    			board[y] = board[y-shiftY];
     			board[y-shiftY] = row;
+    			long rowGen = rowGens[y];
+    			rowGens[y] = rowGens[y-shiftY];
+    			rowGens[y-shiftY] = rowGen;
+    			long rowHash = rowHashes[y];
+    			hash ^= Zobrist.row(rowHash, y) ^ Zobrist.row(rowHash, y-shiftY);
+    			rowHashes[y] = rowHashes[y-shiftY];
+    			rowHashes[y-shiftY] = rowHash;
+    			if(filledIndex >= 0)
+    				justFilled[filledIndex] = y-shiftY;
     		}
     	}
+
+    	if(shiftY == 0)
+    		return;
+
+    	//the cleared rows were swapped to the top, so empty them out
+    	for(int y = height-shiftY; y < height; y++) {
+    		rowHashes[y] = 0;
+    		if(rowGens[y] == generation)
+    			Arrays.fill(board[y], null);
+    		else {
+    			board[y] = new Piece.PieceType[width];
+    			rowGens[y] = generation;
+    		}
+    	}
+
+    	//rows moved, so recount everything
+    	updateValues();
+    }
+
+    // Returns where y sits in justFilled, or -1 if the current move did not fill it
+    private int justFilledIndex(int y) {
+    	for(int i = 0; i < justFilledCnt; i++)
+    		if(justFilled[i] == y)
+    			return i;
+    	return -1;
     }
     
     private void updateValues() {
@@ -133,20 +277,59 @@ public final class TetrisBoard implements Board {
     }
     
     private void placePiece() {
+    	journal.placed(curX, curY);
+
     	Point[] body = curPiece.getBody();
     	Piece.PieceType type = curPiece.getType();
     	for(Point p : body) {
             //combine relative locations with the location of bounding box
-    		int x = p.x + curPos.x;
-    		int y = p.y + curPos.y;
-    		board[y][x] = type;
+    		int x = p.x + curX;
+    		int y = p.y + curY;
+    		writableRow(y)[x] = type;
+    		hash ^= Zobrist.row(rowHashes[y], y);
+    		rowHashes[y] ^= Zobrist.cell(x, type);
+    		hash ^= Zobrist.row(rowHashes[y], y);
+
+    		//only the cells we just filled can change the heights and widths
+    		heights[x] = Math.max(heights[x], y+1);
+    		maxHeight = Math.max(maxHeight, y+1);
+    		if(++widths[y] == width)
+    			justFilled[justFilledCnt++] = y;
     	}
     	curPiece = null;
-    	curPos = null;
+    }
+
+    // Tries each kick in turn, keeping the first one that fits
+    private Result rotate(Piece rotated, Point[] kicks) {
+        //look through the kick table and find a suitable situation
+    	for(int i = 0; i < kicks.length; i++) {
+    		Point p = kicks[i];
+    		if(!checkPieceCollision(rotated, curX + p.x, curY + p.y)) {
+                //update current piece/position information
+    			curPiece = rotated;
+    			curX += p.x;
+    			curY += p.y;
+    			kick = i;
+    			return Result.SUCCESS;
+    		}
+    	}
+
+        //if no location was found, then this is out of bounds
+    	return Result.OUT_BOUNDS;
     }
     
     @Override
     public Result move(Action act) {
+    	record(MoveJournal.KIND_MOVE);
+
+    	//take the piece out of the hash; it goes back in wherever it ends up
+    	if(curPiece != null)
+    		hash ^= Zobrist.piece(curPiece, curX, curY);
+
+    	//rows filled by the previous move are now eligible for clearing
+    	int pending = justFilledCnt;
+    	justFilledCnt = 0;
+
         //ensure that there is a piece to work with
     	Result res = null;
     	if(curPiece == null)
@@ -154,90 +337,45 @@ public final class TetrisBoard implements Board {
     	else {
 	    	switch(act) {
 	    	case CLOCKWISE:
-	    		Piece rotated = curPiece.clockwisePiece();
-	    		Point[] kicks = getClockwiseKickTable(curPiece);
-	    		
-	    		boolean foundLoc = false;
-	            //look through the kick table and find a suitable situation
-	    		for(Point p : kicks) {
-	    			Point newPos = new Point(curPos.x + p.x, curPos.y + p.y);
-	    			if(!checkPieceCollision(rotated, newPos)) {
-	                    //update current piece/position information
-	    				curPiece = rotated;
-	    				curPos = newPos;
-	    				foundLoc = true;
-	    				break;
-	    			}
-	    		}
-	    		
-	            //if no location was found, then this is out of bounds
-	    		if(foundLoc) res = Result.SUCCESS;
-	    		else res = Result.OUT_BOUNDS;
+	    		res = rotate(curPiece.clockwisePiece(), getClockwiseKickTable(curPiece));
 	    		break;
 	    		
 	    	case COUNTERCLOCKWISE:
-	    		rotated = curPiece.counterclockwisePiece();
-	    		kicks = getCounterclockwiseKickTable(curPiece);
-	
-	    		foundLoc = false;
-	            //look through the kick table and find a suitable situation
-	    		for(Point p : kicks) {
-	    			Point newPos = new Point(curPos.x + p.x, curPos.y + p.y);
-	    			if(!checkPieceCollision(rotated, newPos)) {
-	                    //update current piece/position information
-	    				curPiece = rotated;
-	    				curPos = newPos;
-	    				foundLoc = true;
-	    				break;
-	    			}
-	    		}
-	
-	            //if no location was found, then this is out of bounds
-	    		if(foundLoc) res = Result.SUCCESS;
-	    		else res = Result.OUT_BOUNDS;
+	    		res = rotate(curPiece.counterclockwisePiece(), getCounterclockwiseKickTable(curPiece));
 	    		break;
 	    	
 	        //move the piece in the appropriate direction and check if a collision occurs
 	    	case LEFT:
-	    		if(checkPieceCollision(curPiece, new Point(curPos.x-1, curPos.y))) {
+	    		if(checkPieceCollision(curPiece, curX-1, curY)) {
 	    			res = Result.OUT_BOUNDS;
 	    		} else {
-		    		curPos = new Point(curPos.x-1, curPos.y);
+		    		curX--;
 		    		res = Result.SUCCESS;
 	    		}
 	    		break;
 	    		
 	    	case RIGHT:
-	    		if(checkPieceCollision(curPiece, new Point(curPos.x+1, curPos.y)))
+	    		if(checkPieceCollision(curPiece, curX+1, curY))
 	    			res = Result.OUT_BOUNDS;
 	    		else {
-		    		curPos = new Point(curPos.x+1, curPos.y);
+		    		curX++;
 		    		res = Result.SUCCESS;
 	    		}
 	    		break;
 	    	case DOWN:
-	    		if(checkPieceCollision(curPiece, new Point(curPos.x, curPos.y-1))) {
+	    		if(checkPieceCollision(curPiece, curX, curY-1)) {
 	    			placePiece();
 	    			res = Result.PLACE;
 	    		} else {
-		    		curPos = new Point(curPos.x, curPos.y-1);
+		    		curY--;
 		    		res = Result.SUCCESS;
 	    		}
 	    		break;
 	    		
 	    	case DROP:
-	    		int yOffset = 0;
-	            //continually move the piece down until it collides with something
-	    		while(true) {
-	                //upon collision, move back one more and place the piece
-	    			if(checkPieceCollision(curPiece, new Point(curPos.x, curPos.y-yOffset))) {
-	    				curPos = new Point(curPos.x, curPos.y-yOffset+1);
-	    				placePiece();
-	    				res = Result.SUCCESS;
-	    				break;
-	    			}
-	    			yOffset++;
-	    		}
+	    		curY = dropRow();
+	    		placePiece();
+	    		res = Result.SUCCESS;
 	    		break;
 	    	case NOTHING:
 	    		res = Result.SUCCESS;
@@ -250,15 +388,20 @@ public final class TetrisBoard implements Board {
 	    	}
     	}
  
-        //always check if lines can be cleared
-    	clearLines();
-    	
-    	//update heights after line clears
-    	updateValues();
+        //clear the lines filled by the previous move, if any
+    	if(pending > 0)
+    		clearLines();
+
+    	if(curPiece != null)
+    		hash ^= Zobrist.piece(curPiece, curX, curY);
 
         //update the most recent action and result
     	lastAction = act;
     	lastResult = res;
+
+    	//tell the listeners, now that the board is consistent again
+    	if(listeners != null)
+    		listeners.moved(this, journal, act, res, curPiece, curX, curY, kick);
     	
         //return result
     	return res;
@@ -272,6 +415,69 @@ public final class TetrisBoard implements Board {
     	return newBoard;
     }
 
+    @Override
+    public void undo() {
+    	journal.pop();
+    	int kind = journal.kind();
+    	Piece piece = journal.piece();
+
+    	if(kind != MoveJournal.KIND_NEXT_PIECE) {
+    		boolean cleared = journal.clearedCount() > 0;
+    		if(cleared)
+    			restoreLines();
+
+            //take the placed piece back off the grid
+    		if(kind == MoveJournal.KIND_PLACE) {
+    			int placeX = journal.placeX(), placeY = journal.placeY();
+    			for(Point p : piece.getBody()) {
+    				writableRow(placeY + p.y)[placeX + p.x] = null;
+    				widths[placeY + p.y]--;
+    				rowHashes[placeY + p.y] ^= Zobrist.cell(placeX + p.x, piece.getType());
+    			}
+    			if(!cleared) {
+    				for(Point p : piece.getBody()) {
+    					int x = placeX + p.x;
+    					while(heights[x] > 0 && board[heights[x]-1][x] == null)
+    						heights[x]--;
+    				}
+    			}
+    		}
+
+    		//rows moved, so recount everything
+    		if(cleared)
+    			updateValues();
+
+    		rowClearCnt = journal.rowsCleared();
+    		maxHeight = journal.maxHeight();
+    		justFilledCnt = journal.justFilled(justFilled);
+    		lastAction = journal.lastAction();
+    		lastResult = journal.lastResult();
+    	}
+
+    	curPiece = piece;
+    	curX = journal.x();
+    	curY = journal.y();
+    	hash = journal.hash();
+    	journal.release();
+    	if(listeners != null)
+    		listeners.undone(this);
+    }
+
+    @Override
+    public void addBoardListener(BoardListener listener) {
+    	listeners = BoardListeners.add(listeners, listener);
+    }
+
+    @Override
+    public void removeBoardListener(BoardListener listener) {
+    	BoardListeners.remove(listeners, listener);
+    }
+
+    @Override
+    public List<Placement> legalPlacements(Piece piece, Point start) {
+    	return PlacementSearch.search(width, height, piece, start, this::checkPieceCollision);
+    }
+
     @Override
     public Piece getCurrentPiece() {
     	return curPiece;
@@ -279,16 +485,78 @@ public final class TetrisBoard implements Board {
 
     @Override
     public Point getCurrentPiecePosition() {
-    	return curPos;
+    	if(curPiece == null)
+    		return null;
+    	return new Point(curX, curY);
     }
 
     @Override
     public void nextPiece(Piece p, Point spawnPosition) {
-    	if(checkPieceCollision(p, spawnPosition))
+    	if(checkPieceCollision(p, spawnPosition.x, spawnPosition.y)) {
+    		if(listeners != null)
+    			listeners.gameOver(this);
     		throw new IllegalArgumentException("Piece could not be spawned");
+    	}
     	
+    	record(MoveJournal.KIND_NEXT_PIECE);
+    	if(curPiece != null)
+    		hash ^= Zobrist.piece(curPiece, curX, curY);
     	curPiece = p;
-    	curPos = spawnPosition;
+    	curX = spawnPosition.x;
+    	curY = spawnPosition.y;
+    	hash ^= Zobrist.piece(curPiece, curX, curY);
+    	if(listeners != null)
+    		listeners.pieceSpawned(this, curPiece, curX, curY);
+    }
+
+    @Override
+    public void restore(Piece.PieceType[][] grid, Piece piece, Point position, int rowsCleared) {
+    	if(grid.length != height)
+    		throw new IllegalArgumentException("Grid has " + grid.length + " rows, not " + height);
+    	int full = 0;
+    	for(Piece.PieceType[] row : grid) {
+    		if(row.length != width)
+    			throw new IllegalArgumentException("Grid row has " + row.length + " cells, not " + width);
+    		int filled = 0;
+    		for(Piece.PieceType type : row)
+    			if(type != null) filled++;
+    		if(filled == width) full++;
+    	}
+    	if(full > justFilled.length)
+    		throw new IllegalArgumentException("Grid has " + full + " full rows");
+    	//check the piece against the new grid before anything changes, so a bad state leaves the board as it was
+    	if(piece != null) {
+    		for(Point p : piece.getBody()) {
+    			int x = position.x + p.x, y = position.y + p.y;
+    			if(x < 0 || x >= width || y < 0 || y >= height || grid[y][x] != null)
+    				throw new IllegalArgumentException("Piece collides with the grid");
+    		}
+    	}
+
+    	for(int y = 0; y < height; y++)
+    		System.arraycopy(grid[y], 0, writableRow(y), 0, width);
+    	updateValues();
+
+        //full rows are left for the next move to clear
+    	justFilledCnt = 0;
+    	for(int y = 0; y < height; y++)
+    		if(widths[y] == width)
+    			justFilled[justFilledCnt++] = y;
+
+    	curPiece = piece;
+    	if(piece != null) {
+    		curX = position.x;
+    		curY = position.y;
+    	}
+    	rowClearCnt = rowsCleared;
+    	lastAction = null;
+    	lastResult = null;
+    	for(int y = 0; y < height; y++)
+    		rowHashes[y] = Zobrist.rowHash(this, y);
+    	hash = Zobrist.of(this);
+
+    	//nothing before this state can be undone
+    	journal.clear();
     }
 
     @Override
@@ -296,14 +564,20 @@ public final class TetrisBoard implements Board {
         //must be a board
     	if(!(other instanceof Board)) return false;
 
-        //compare current piece
+        //differing hashes can never be equal boards
     	Board b = (Board) other;
-    	if(curPiece == null) return b.getCurrentPiece() == null;
-    	if(!curPiece.equals(b.getCurrentPiece())) return false;
+    	if(b.getZobristHash() != hash) return false;
 
-        //compare current piece position
-    	if(curPos == null) return b.getCurrentPiecePosition() == null;
-    	if(!curPos.equals(b.getCurrentPiecePosition())) return false;
+        //compare current piece
+    	if(curPiece == null) {
+    		if(b.getCurrentPiece() != null) return false;
+    	} else {
+    		if(!curPiece.equals(b.getCurrentPiece())) return false;
+
+	        //compare current piece position
+	    	Point otherPos = b.getCurrentPiecePosition();
+	    	if(otherPos == null || otherPos.x != curX || otherPos.y != curY) return false;
+    	}
 
         //compare dimensions
     	if(b.getWidth() != getWidth()) return false;
@@ -316,6 +590,16 @@ public final class TetrisBoard implements Board {
     	return true;
     }
 
+    @Override
+    public int hashCode() {
+    	return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public long getZobristHash() {
+    	return hash;
+    }
+
     @Override
     public Result getLastResult() {
     	return lastResult;
@@ -28,6 +28,7 @@ public final class TetrisPiece implements Piece {
 	private final int height;
 	private final int rotIndex;
 	private final int[] skirt;
+	private final int[] rowMasks;
 	private static HashMap<PieceType, TetrisPiece[]> map;
 	private static final int ROTATIONS = 4;
 	
@@ -43,12 +44,14 @@ public final class TetrisPiece implements Piece {
 			int width = (int) type.getBoundingBox().getWidth();
 			int height = (int) type.getBoundingBox().getHeight();
 			Point[] spawnBody = type.getSpawnBody();
-			pieces[0] = new TetrisPiece(type, 0, spawnBody, width, height, computeSkirt(spawnBody, width));
+			pieces[0] = new TetrisPiece(type, 0, spawnBody, width, height, computeSkirt(spawnBody, width),
+					computeRowMasks(spawnBody, height));
 
             //rotate the body for each rotated piece
 			for (int i = 1; i < ROTATIONS; i++) {
 				Point[] body = rotateCW(pieces[i - 1].getBody(), width, height);
-				pieces[i] = new TetrisPiece(type, i, body, width, height, computeSkirt(body, width));
+				pieces[i] = new TetrisPiece(type, i, body, width, height, computeSkirt(body, width),
+						computeRowMasks(body, height));
 			}
 		    
             //add the circular linkedlist links
@@ -91,12 +94,26 @@ public final class TetrisPiece implements Piece {
 		return skirt;
 	}
 
+	private static int[] computeRowMasks(Point[] arr, int height) {
+		int[] masks = new int[height];
+		for (int i = 0; i < arr.length; i++) {
+            //set the bit for this point's column in its row
+			masks[arr[i].y] |= 1 << arr[i].x;
+		}
+		return masks;
+	}
+
 	public TetrisPiece(PieceType type) {
         //use other constructor
 		this(type, 0);
 
 	}
     
+	// Returns the shared, precomputed piece of the given type and rotation
+	static Piece of(PieceType type, int rotIndex) {
+		return map.get(type)[rotIndex];
+	}
+
 	private TetrisPiece(PieceType type, int rotIndex) {
         //copy information from the precomputed piece
 		this.type = type;
@@ -108,10 +125,11 @@ public final class TetrisPiece implements Piece {
 		this.nextCCW = copyPiece.counterclockwisePiece();
 		this.nextCW = copyPiece.clockwisePiece();
 		this.skirt = Arrays.copyOf(copyPiece.getSkirt(), copyPiece.getWidth());
+		this.rowMasks = copyPiece.getRowMasks();
 		
 	}
 
-	private TetrisPiece(PieceType type, int rotIndex, Point[] arr, int width, int height, int[] skirt) {
+	private TetrisPiece(PieceType type, int rotIndex, Point[] arr, int width, int height, int[] skirt, int[] rowMasks) {
         //set values based on provided parameters
 		this.type = type;
 		this.rotIndex = rotIndex;
@@ -119,6 +137,7 @@ public final class TetrisPiece implements Piece {
 		this.width = width;
 		this.height = height;
 		this.skirt = skirt;
+		this.rowMasks = rowMasks;
 	}
 
 	@Override
@@ -164,6 +183,11 @@ public final class TetrisPiece implements Piece {
 		return skirt;
 	}
 
+	@Override
+	public int[] getRowMasks() {
+		return rowMasks;
+	}
+
 	@Override
 	public boolean equals(Object other) {
 		// Ignore objects which aren't also tetris pieces.
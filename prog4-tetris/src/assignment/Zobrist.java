@@ -0,0 +1,83 @@
+package assignment;
+
+/**
+ * Zobrist keys shared by the board implementations, so that equal boards hash equally no matter
+ * which implementation holds them. Each row has a hash, the XOR of the keys of its filled cells,
+ * and a board's hash is the XOR of every non-empty row's hash mixed with its height, and the key
+ * of its current piece (if any). Filling a cell or moving the piece updates it in constant time,
+ * and clearing rows only has to re-mix the rows that moved.
+ *
+ * Keys are derived by mixing the cell/piece coordinates rather than read from a random table, so
+ * they work for any board size.
+ */
+final class Zobrist {
+
+	private static final long PIECE_TAG = 1L << 62;
+	private static final long ROW_TAG = 1L << 61;
+
+	private Zobrist() {}
+
+	// SplitMix64's finalizer; spreads every input bit over the whole output
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the key for a cell in column x filled by the given piece type, which goes into the
+	 * hash of the cell's row.
+	 */
+	static long cell(int x, Piece.PieceType type) {
+		return mix(((long) x << 16) | (type.ordinal() + 1));
+	}
+
+	/**
+	 * Returns what a row with the given hash adds to the board's hash at height y. Empty rows add
+	 * nothing.
+	 */
+	static long row(long rowHash, int y) {
+		return rowHash == 0 ? 0 : mix(rowHash ^ mix(ROW_TAG | y));
+	}
+
+	/**
+	 * Computes the hash of row y of a board from scratch.
+	 */
+	static long rowHash(Board board, int y) {
+		long hash = 0;
+		for(int x = 0; x < board.getWidth(); x++)
+			if(board.getGrid(x, y) != null)
+				hash ^= cell(x, board.getGrid(x, y));
+		return hash;
+	}
+
+	/**
+	 * Returns the key for the given current piece with its bounding box at (x, y).
+	 */
+	static long piece(Piece piece, int x, int y) {
+		return mix(PIECE_TAG | ((long) (y & 0xFFFF) << 32) | ((long) (x & 0xFFFF) << 16)
+				| (piece.getRotationIndex() << 8) | (piece.getType().ordinal() + 1));
+	}
+
+	/**
+	 * Computes the hash of a board's grid from scratch, leaving out the current piece.
+	 */
+	static long grid(Board board) {
+		long hash = 0;
+		for(int y = 0; y < board.getHeight(); y++)
+			hash ^= row(rowHash(board, y), y);
+		return hash;
+	}
+
+	/**
+	 * Computes the full hash of a board (grid and current piece) from scratch.
+	 */
+	static long of(Board board) {
+		long hash = grid(board);
+		if(board.getCurrentPiece() != null) {
+			java.awt.Point pos = board.getCurrentPiecePosition();
+			hash ^= piece(board.getCurrentPiece(), pos.x, pos.y);
+		}
+		return hash;
+	}
+}
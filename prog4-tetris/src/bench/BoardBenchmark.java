@@ -0,0 +1,52 @@
+package bench;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import assignment.*;
+
+/*
+ * Board queries the brains lean on, on the mid-game corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	private static final int CORPUS_SIZE = 64;
+
+	@Param({ "TetrisBoard", "BitTetrisBoard" })
+	public String boardClass;
+
+	private Board[] boards;
+	private int next;
+
+	@Setup
+	public void setup() {
+		List<Board> corpus = BoardCorpus.midGame(boardClass, CORPUS_SIZE);
+		boards = corpus.toArray(new Board[0]);
+	}
+
+	// Every column the current piece fits in
+	@Benchmark
+	public void dropHeight(Blackhole bh) {
+		Board board = boards[next++ & (CORPUS_SIZE - 1)];
+		Piece piece = board.getCurrentPiece();
+		for (int x = 0; x + piece.getWidth() <= board.getWidth(); x++)
+			bh.consume(board.dropHeight(piece, x));
+	}
+
+	@Benchmark
+	public List<Placement> legalPlacements() {
+		Board board = boards[next++ & (CORPUS_SIZE - 1)];
+		Point start = board.getCurrentPiecePosition();
+		return board.legalPlacements(board.getCurrentPiece(), start);
+	}
+}
@@ -0,0 +1,123 @@
+package bench;
+
+import java.awt.Point;
+import java.util.*;
+
+import assignment.*;
+
+/*
+ * Fixed, seeded boards for the benchmarks, so every run (and every board implementation)
+ * is measured on exactly the same positions.
+ */
+public class BoardCorpus {
+
+	public static final long SEED = 20240601L;
+
+	// take a snapshot every this many pieces of a game
+	private static final int SAMPLE_EVERY = 7;
+
+	// Creates an empty board of the named class in the assignment package
+	public static Board newBoard(String boardClass, int width, int height) {
+		try {
+			return (Board) Class.forName("assignment." + boardClass).getConstructor(int.class, int.class)
+					.newInstance(width, height);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("No such board: " + boardClass, e);
+		}
+	}
+
+	/*
+	 * Returns count mid-game boards, each with a freshly spawned piece, taken from seeded
+	 * CheeseBrain games. The games only depend on the seed, so every board class gets the
+	 * same positions, and their pieces come from a 7-bag so no run of the corpus is skewed by
+	 * a drought.
+	 */
+	public static List<Board> midGame(String boardClass, int count) {
+		List<Board> boards = new ArrayList<>();
+		SplittableRandom seeds = new SplittableRandom(SEED);
+		while (boards.size() < count) {
+			HeadlessTetris game = new HeadlessTetris(
+					newBoard(boardClass, Playfield.WIDTH, Playfield.HEIGHT + Playfield.TOP_SPACE),
+					new CheeseBrain(), Randomizer.SEVEN_BAG, seeds.nextLong());
+			int pieces = game.getPieces();
+			while (boards.size() < count && game.step()) {
+				if (game.getPieces() != pieces && game.getPieces() % SAMPLE_EVERY == 0)
+					boards.add(game.getBoard().testMove(Board.Action.NOTHING));
+				pieces = game.getPieces();
+			}
+		}
+		return boards;
+	}
+
+	/*
+	 * Returns a board whose next move clears exactly the given number (1-4) of rows: the
+	 * bottom rows are full apart from column 0, and a vertical stick has just been dropped
+	 * into it. Rows are cleared on the move after the one that fills them.
+	 */
+	public static Board pendingClear(String boardClass, int rows) {
+		int width = Playfield.WIDTH, height = Playfield.HEIGHT + Playfield.TOP_SPACE;
+		Board board = newBoard(boardClass, width, height);
+
+		// the last column only reaches the rows to be cleared, leaving a gap in the others
+		switch (rows) {
+		case 1:
+			drop(board, shape(Piece.PieceType.STICK, "0,0 1,0 2,0 3,0"), width - 4);
+			break;
+		case 2:
+			drop(board, shape(Piece.PieceType.SQUARE, "0,0 0,1 1,0 1,1"), width - 2);
+			break;
+		case 3:
+			drop(board, shape(Piece.PieceType.LEFT_L, "0,0 1,0 1,1 1,2"), width - 2);
+			break;
+		case 4:
+			drop(board, shape(Piece.PieceType.STICK, "0,0 0,1 0,2 0,3"), width - 1);
+			break;
+		default:
+			throw new IllegalArgumentException("Can only clear 1-4 rows: " + rows);
+		}
+
+		// everything else in the bottom four rows, except column 0
+		Piece stick = shape(Piece.PieceType.STICK, "0,0 0,1 0,2 0,3");
+		for (int x = 1; x < width - 1; x++)
+			drop(board, stick, x);
+
+		// fill column 0, but leave the clear for the next move
+		board.nextPiece(stick, new Point(-stick.getBody()[0].x, board.getHeight() - Playfield.TOP_SPACE));
+		board.move(Board.Action.DROP);
+		return board;
+	}
+
+	// Spawns the piece near the top with its leftmost cells in the given column and drops it
+	private static void drop(Board board, Piece piece, int column) {
+		int minX = Integer.MAX_VALUE;
+		for (Point p : piece.getBody())
+			minX = Math.min(minX, p.x);
+		board.nextPiece(piece, new Point(column - minX, board.getHeight() - Playfield.TOP_SPACE));
+		board.move(Board.Action.DROP);
+		board.move(Board.Action.NOTHING);
+	}
+
+	// Finds the rotation of the piece whose cells, moved to the bottom left corner, are the given "x,y" pairs
+	private static Piece shape(Piece.PieceType type, String cells) {
+		Set<Point> wanted = new HashSet<>();
+		for (String cell : cells.split(" ")) {
+			String[] xy = cell.split(",");
+			wanted.add(new Point(Integer.parseInt(xy[0]), Integer.parseInt(xy[1])));
+		}
+
+		Piece piece = new TetrisPiece(type);
+		for (int rot = 0; rot < 4; rot++, piece = piece.clockwisePiece()) {
+			int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+			for (Point p : piece.getBody()) {
+				minX = Math.min(minX, p.x);
+				minY = Math.min(minY, p.y);
+			}
+			Set<Point> actual = new HashSet<>();
+			for (Point p : piece.getBody())
+				actual.add(new Point(p.x - minX, p.y - minY));
+			if (actual.equals(wanted))
+				return piece;
+		}
+		throw new IllegalArgumentException(type + " has no rotation " + cells);
+	}
+}
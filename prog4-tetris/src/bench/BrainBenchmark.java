@@ -0,0 +1,45 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import assignment.*;
+
+/*
+ * A full brain decision for a freshly spawned piece on the mid-game corpus. A new brain is
+ * used for every call, so no cached plan is ever replayed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrainBenchmark {
+
+	private static final int CORPUS_SIZE = 64;
+
+	@Param({ "TetrisBoard", "BitTetrisBoard" })
+	public String boardClass;
+
+	private Board[] boards;
+	private int next;
+
+	@Setup
+	public void setup() {
+		List<Board> corpus = BoardCorpus.midGame(boardClass, CORPUS_SIZE);
+		boards = corpus.toArray(new Board[0]);
+	}
+
+	@Benchmark
+	public Board.Action cheeseBrain() {
+		return new CheeseBrain().nextMove(boards[next++ & (CORPUS_SIZE - 1)]);
+	}
+
+	@Benchmark
+	public Board.Action lameBrain() {
+		return new LameBrain().nextMove(boards[next++ & (CORPUS_SIZE - 1)]);
+	}
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import assignment.*;
+
+/*
+ * Clearing 1-4 rows at once. Rows are cleared by the move after the one that fills them,
+ * so this times that move (and the undo that puts the rows back).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClearBenchmark {
+
+	@Param({ "TetrisBoard", "BitTetrisBoard" })
+	public String boardClass;
+
+	@Param({ "1", "2", "3", "4" })
+	public int rows;
+
+	private Board board;
+
+	@Setup
+	public void setup() {
+		board = BoardCorpus.pendingClear(boardClass, rows);
+	}
+
+	@Benchmark
+	public int clearLines() {
+		board.move(Board.Action.NOTHING);
+		int cleared = board.getRowsCleared();
+		board.undo();
+		return cleared;
+	}
+}
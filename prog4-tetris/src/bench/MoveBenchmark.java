@@ -0,0 +1,54 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import assignment.*;
+
+/*
+ * Board.move and Board.testMove for each action, on the mid-game corpus. Each move is undone
+ * straight away so the corpus stays the same from one invocation to the next.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+	// a power of two, so the next board is a mask away
+	private static final int CORPUS_SIZE = 64;
+
+	@Param({ "TetrisBoard", "BitTetrisBoard" })
+	public String boardClass;
+
+	@Param({ "LEFT", "RIGHT", "DOWN", "CLOCKWISE", "COUNTERCLOCKWISE", "DROP", "NOTHING" })
+	public String action;
+
+	private Board[] boards;
+	private Board.Action act;
+	private int next;
+
+	@Setup
+	public void setup() {
+		List<Board> corpus = BoardCorpus.midGame(boardClass, CORPUS_SIZE);
+		boards = corpus.toArray(new Board[0]);
+		act = Board.Action.valueOf(action);
+	}
+
+	@Benchmark
+	public Board.Result moveAndUndo() {
+		Board board = boards[next++ & (CORPUS_SIZE - 1)];
+		Board.Result result = board.move(act);
+		board.undo();
+		return result;
+	}
+
+	@Benchmark
+	public Board testMove() {
+		return boards[next++ & (CORPUS_SIZE - 1)].testMove(act);
+	}
+}
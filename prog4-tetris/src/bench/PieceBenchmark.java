@@ -0,0 +1,45 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import assignment.*;
+
+/*
+ * Rotating pieces; each call steps through all four rotations of the piece.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+	@Param({ "STICK", "SQUARE", "T", "LEFT_L", "RIGHT_L", "LEFT_DOG", "RIGHT_DOG" })
+	public String type;
+
+	private Piece piece;
+
+	@Setup
+	public void setup() {
+		piece = new TetrisPiece(Piece.PieceType.valueOf(type));
+	}
+
+	@Benchmark
+	public Piece clockwise() {
+		Piece p = piece;
+		for (int i = 0; i < 4; i++)
+			p = p.clockwisePiece();
+		return p;
+	}
+
+	@Benchmark
+	public Piece counterclockwise() {
+		Piece p = piece;
+		for (int i = 0; i < 4; i++)
+			p = p.counterclockwisePiece();
+		return p;
+	}
+}
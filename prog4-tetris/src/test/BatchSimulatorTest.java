@@ -0,0 +1,32 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+
+public class BatchSimulatorTest {
+
+	@Test
+	public void testThreadCountDoesNotChangeResults() {
+		BatchStats serial = new BatchSimulator(CheeseBrain::new, 1).run(6, 5, 150);
+		BatchStats parallel = new BatchSimulator(CheeseBrain::new, 3).run(6, 5, 150);
+		assertEquals(6, serial.getGames());
+		assertEquals(serial.getGames(), parallel.getGames());
+		assertEquals(serial.getToppedOut(), parallel.getToppedOut());
+		assertEquals(serial.getMeanPieces(), parallel.getMeanPieces(), 0);
+		assertEquals(serial.getMeanRowsCleared(), parallel.getMeanRowsCleared(), 0);
+		assertEquals(serial.getMinPieces(), parallel.getMinPieces());
+		assertEquals(serial.getMaxPieces(), parallel.getMaxPieces());
+		assertEquals(serial.getMoves(), parallel.getMoves());
+	}
+
+	@Test
+	public void testPieceLimit() {
+		BatchStats stats = new BatchSimulator(CheeseBrain::new, 2).run(4, 9, 20);
+		assertTrue(stats.getMaxPieces() <= 20);
+		assertTrue(stats.getMoves() > 0);
+		assertTrue(stats.getDecisionsPerSecond() > 0);
+	}
+}
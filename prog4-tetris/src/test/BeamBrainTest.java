@@ -0,0 +1,155 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+public class BeamBrainTest {
+
+	private static final int WIDTH = 10, HEIGHT = 20, TOP_SPACE = 4, PREVIEW_SIZE = 3;
+
+	private static final Piece[] PIECES = new Piece[Piece.PieceType.values().length];
+	static {
+		for (Piece.PieceType type : Piece.PieceType.values())
+			PIECES[type.ordinal()] = new TetrisPiece(type);
+	}
+
+	// Plays a seeded game of up to maxPieces pieces with the brain making every move, showing it
+	// the upcoming pieces the way JTetris does, and returns the board it ends on
+	private Board play(Brain brain, long seed, int maxPieces) {
+		Random random = new Random(seed);
+		Board board = new TetrisBoard(WIDTH, HEIGHT + TOP_SPACE);
+		java.util.List<Piece> upcoming = new ArrayList<>();
+		for (int pieces = 0; pieces < maxPieces && board.getMaxHeight() <= HEIGHT; pieces++) {
+			while (upcoming.size() <= PREVIEW_SIZE)
+				upcoming.add(PIECES[random.nextInt(PIECES.length)]);
+			Piece piece = upcoming.remove(0);
+			try {
+				board.nextPiece(piece, new Point(WIDTH / 2 - piece.getWidth() / 2, HEIGHT));
+			} catch (IllegalArgumentException e) {
+				break;
+			}
+			for (int moves = 0; board.getCurrentPiece() != null; moves++) {
+				assertTrue("brain never placed the piece", moves < 100);
+				brain.setPreview(upcoming);
+				board.move(brain.nextMove(board));
+			}
+		}
+		return board;
+	}
+
+	@Test
+	public void testPlaysWithoutToppingOut() {
+		Board board = play(new BeamBrain(3, 2), 1, 60);
+		assertTrue(board.getMaxHeight() <= HEIGHT);
+		assertTrue(board.getRowsCleared() > 0);
+	}
+
+	@Test
+	public void testNoPreviewSearchesOnePly() {
+		// a brain that is never shown the preview can only search the current piece
+		BeamBrain deep = new BeamBrain(3, 3);
+		Brain blind = new Brain() {
+			public Board.Action nextMove(Board currentBoard) {
+				return deep.nextMove(currentBoard);
+			}
+		};
+		Board expected = play(new BeamBrain(3, 1), 5, 40);
+		Board actual = play(blind, 5, 40);
+		assertEquals(expected, actual);
+		assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+	}
+
+	// A stick over a four-deep well against the left wall, so the best placement takes several moves
+	private Board stickOverWell() {
+		Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT + TOP_SPACE][WIDTH];
+		for (int y = 0; y < 4; y++)
+			for (int x = 1; x < WIDTH; x++)
+				grid[y][x] = Piece.PieceType.SQUARE;
+		Board board = new TetrisBoard(WIDTH, HEIGHT + TOP_SPACE);
+		board.restore(grid, new TetrisPiece(Piece.PieceType.STICK), new Point(WIDTH / 2 - 2, HEIGHT), 0);
+		return board;
+	}
+
+	@Test
+	public void testFollowsPlanWithoutSearching() {
+		BeamBrain brain = new BeamBrain(3, 1);
+		Board board = stickOverWell();
+		int moves = 0;
+		while (board.getCurrentPiece() != null) {
+			board.move(brain.nextMove(board));
+			moves++;
+		}
+		// every move after the first came from the plan
+		assertTrue(moves > 2);
+		assertEquals(1, brain.getDecisions());
+		assertEquals(4, board.testMove(Board.Action.NOTHING).getRowsCleared());
+	}
+
+	@Test
+	public void testReplansWhenBoardDiverges() {
+		// gravity pulling the piece down, or the piece moved by something else, both leave the plan
+		for (Board.Action interruption : new Board.Action[] { Board.Action.DOWN, Board.Action.RIGHT }) {
+			BeamBrain brain = new BeamBrain(3, 1);
+			Board board = stickOverWell();
+			board.move(brain.nextMove(board));
+			board.move(brain.nextMove(board));
+			assertEquals(1, brain.getDecisions());
+
+			assertEquals(Board.Result.SUCCESS, board.move(interruption));
+			board.move(brain.nextMove(board));
+			assertEquals(2, brain.getDecisions());
+
+			// the new plan is followed in turn, still filling the well
+			while (board.getCurrentPiece() != null)
+				board.move(brain.nextMove(board));
+			assertEquals(2, brain.getDecisions());
+			assertEquals(4, board.testMove(Board.Action.NOTHING).getRowsCleared());
+		}
+	}
+
+	@Test
+	public void testNoPieceDoesNothing() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT + TOP_SPACE);
+		assertEquals(Board.Action.NOTHING, new BeamBrain().nextMove(board));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsEmptyBeam() {
+		new BeamBrain(0, 2);
+	}
+
+	@Test
+	public void testFullDepthWithoutBudget() {
+		BeamBrain brain = new BeamBrain(3, 3);
+		new HeadlessTetris(brain, 1).run(20);
+		assertTrue(brain.getDecisions() > 0);
+		assertEquals(0, brain.getTimeouts());
+		assertEquals(3, brain.getLastDepth());
+		assertFalse(brain.lastTimedOut());
+	}
+
+	@Test
+	public void testTinyBudgetTimesOut() {
+		// far too little time to get past the first ply, but every piece still gets a move
+		BeamBrain brain = new BeamBrain(3, 3, 1);
+		HeadlessTetris game = new HeadlessTetris(brain, 1);
+		game.run(20);
+		assertEquals(brain.getDecisions(), brain.getTimeouts());
+		assertTrue(brain.lastTimedOut());
+		assertEquals(0, brain.getLastDepth());
+		assertTrue(game.getPieces() > 1);
+	}
+
+	@Test
+	public void testBudgetedSameAsUnbudgetedWhenTimeAllows() {
+		GameResult unlimited = new HeadlessTetris(new BeamBrain(3, 2), 4).run(40);
+		GameResult budgeted = new HeadlessTetris(new BeamBrain(3, 2, 60_000_000_000L), 4).run(40);
+		assertEquals(unlimited.getMoves(), budgeted.getMoves());
+		assertEquals(unlimited.getRowsCleared(), budgeted.getRowsCleared());
+	}
+}
@@ -0,0 +1,93 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+public class BitTetrisBoardTest {
+
+	private static final Piece[] PIECES = new Piece[Piece.PieceType.values().length];
+	static {
+		for (Piece.PieceType type : Piece.PieceType.values())
+			PIECES[type.ordinal()] = new TetrisPiece(type);
+	}
+
+	// Plays the same seeded random game on both boards, checking they agree after every action
+	private void playAlongside(long seed, int width, int height) {
+		Random random = new Random(seed);
+		Board expected = new TetrisBoard(width, height);
+		Board actual = new BitTetrisBoard(width, height);
+		Board.Action[] actions = { Board.Action.LEFT, Board.Action.RIGHT, Board.Action.DOWN, Board.Action.DROP,
+				Board.Action.CLOCKWISE, Board.Action.COUNTERCLOCKWISE, Board.Action.NOTHING };
+
+		for (int step = 0; step < 2000; step++) {
+			if (expected.getCurrentPiece() == null) {
+				Piece piece = PIECES[random.nextInt(PIECES.length)];
+				Point spawn = new Point(width / 2 - piece.getWidth() / 2, height - 4);
+				boolean expectedFailed = false, actualFailed = false;
+				try {
+					expected.nextPiece(piece, spawn);
+				} catch (IllegalArgumentException e) {
+					expectedFailed = true;
+				}
+				try {
+					actual.nextPiece(piece, spawn);
+				} catch (IllegalArgumentException e) {
+					actualFailed = true;
+				}
+				assertEquals(expectedFailed, actualFailed);
+				if (expectedFailed)
+					return;
+			}
+
+			Board.Action action = actions[random.nextInt(actions.length)];
+			assertBoardsMatch(expected.testMove(action), actual.testMove(action));
+			assertEquals(expected.move(action), actual.move(action));
+			assertBoardsMatch(expected, actual);
+		}
+	}
+
+	private void assertBoardsMatch(Board expected, Board actual) {
+		assertEquals(expected.getCurrentPiece(), actual.getCurrentPiece());
+		assertEquals(expected.getCurrentPiecePosition(), actual.getCurrentPiecePosition());
+		assertEquals(expected.getLastResult(), actual.getLastResult());
+		assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+		assertEquals(expected.getMaxHeight(), actual.getMaxHeight());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			assertEquals(expected.getColumnHeight(x), actual.getColumnHeight(x));
+			for (int y = 0; y < expected.getHeight(); y++)
+				assertEquals(expected.getGrid(x, y), actual.getGrid(x, y));
+		}
+		for (int y = 0; y < expected.getHeight(); y++)
+			assertEquals(expected.getRowWidth(y), actual.getRowWidth(y));
+		assertTrue(actual.equals(expected));
+		assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	@Test
+	public void testStandardBoard() {
+		for (long seed = 0; seed < 20; seed++)
+			playAlongside(seed, 10, 24);
+	}
+
+	@Test
+	public void testNarrowBoard() {
+		for (long seed = 0; seed < 20; seed++)
+			playAlongside(seed, 4, 12);
+	}
+
+	@Test
+	public void testWideTallBoard() {
+		for (long seed = 0; seed < 5; seed++)
+			playAlongside(seed, 32, 48);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooWide() {
+		new BitTetrisBoard(33, 20);
+	}
+}
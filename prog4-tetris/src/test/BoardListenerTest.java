@@ -0,0 +1,122 @@
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+@RunWith(Parameterized.class)
+public class BoardListenerTest {
+
+	private static final int WIDTH = 4, HEIGHT = 8;
+
+	private Class<? extends Board> boardClass;
+
+	public BoardListenerTest(Class<? extends Board> boardClass) {
+		this.boardClass = boardClass;
+	}
+
+	@Parameters
+	public static Collection<Object[]> getTestData() {
+		return Arrays.asList(new Object[][] { { TetrisBoard.class }, { BitTetrisBoard.class } });
+	}
+
+	// Writes every event down as a short string
+	private static class Recorder implements BoardListener {
+		java.util.List<String> events = new ArrayList<>();
+
+		public void pieceSpawned(Board board, Piece piece, int x, int y) {
+			events.add("spawned " + piece.getType() + " " + x + "," + y);
+		}
+
+		public void pieceMoved(Board board, Board.Action action, int x, int y) {
+			events.add("moved " + action + " " + x + "," + y);
+		}
+
+		public void pieceRotated(Board board, Piece piece, int x, int y, int kickIndex) {
+			events.add("rotated " + piece.getRotationIndex() + " " + x + "," + y + " kick " + kickIndex);
+		}
+
+		public void pieceLocked(Board board, Piece piece, int x, int y) {
+			events.add("locked " + piece.getType() + " " + x + "," + y);
+		}
+
+		public void rowsCleared(Board board, int[] rows, int count) {
+			events.add("cleared " + Arrays.toString(Arrays.copyOf(rows, count)));
+		}
+
+		public void gameOver(Board board) {
+			events.add("game over");
+		}
+
+		public void undone(Board board) {
+			events.add("undone");
+		}
+	}
+
+	private Board newBoard() throws Exception {
+		return boardClass.getConstructor(int.class, int.class).newInstance(WIDTH, HEIGHT);
+	}
+
+	@Test
+	public void testMovesAndRotations() throws Exception {
+		Board board = newBoard();
+		Recorder recorder = new Recorder();
+		board.addBoardListener(recorder);
+
+		board.nextPiece(new TetrisPiece(Piece.PieceType.T), new Point(1, 4));
+		board.move(Board.Action.LEFT);
+		board.move(Board.Action.LEFT); // blocked by the wall, so nothing to report
+		board.move(Board.Action.NOTHING);
+		board.move(Board.Action.CLOCKWISE);
+		board.move(Board.Action.DOWN);
+		board.undo();
+
+		assertEquals(Arrays.asList("spawned T 1,4", "moved LEFT 0,4", "rotated 1 0,4 kick 0", "moved DOWN 0,3",
+				"undone"), recorder.events);
+	}
+
+	@Test
+	public void testLockAndClear() throws Exception {
+		Board board = newBoard();
+		Recorder recorder = new Recorder();
+		board.addBoardListener(recorder);
+
+		// a flat stick fills the bottom row, which is cleared on the following move
+		board.nextPiece(new TetrisPiece(Piece.PieceType.STICK), new Point(0, 4));
+		board.move(Board.Action.DROP);
+		board.nextPiece(new TetrisPiece(Piece.PieceType.SQUARE), new Point(1, 4));
+		board.move(Board.Action.NOTHING);
+
+		assertEquals(Arrays.asList("spawned STICK 0,4", "moved DROP 0,-2", "locked STICK 0,-2",
+				"spawned SQUARE 1,4", "cleared [0]"), recorder.events);
+	}
+
+	@Test
+	public void testGameOverAndRemoval() throws Exception {
+		Board board = newBoard();
+		Recorder recorder = new Recorder();
+		board.addBoardListener(recorder);
+
+		try {
+			board.nextPiece(new TetrisPiece(Piece.PieceType.SQUARE), new Point(WIDTH, 0));
+			fail("Piece should not fit");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(Arrays.asList("game over"), recorder.events);
+
+		// copies start without listeners, and removed listeners hear nothing more
+		board.nextPiece(new TetrisPiece(Piece.PieceType.SQUARE), new Point(1, 4));
+		board.testMove(Board.Action.DROP).move(Board.Action.LEFT);
+		board.removeBoardListener(recorder);
+		board.move(Board.Action.DROP);
+		assertEquals(Arrays.asList("game over", "spawned SQUARE 1,4"), recorder.events);
+	}
+}
@@ -0,0 +1,85 @@
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+import assignment.*;
+import java.awt.*;
+
+@RunWith(Parameterized.class)
+public class BrainTest {
+
+	private static final int WIDTH = 10, HEIGHT = 24;
+
+	private Supplier<Brain> brains;
+
+	public BrainTest(String name, Supplier<Brain> brains) {
+		this.brains = brains;
+	}
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> getTestData() {
+		return Arrays.asList(new Object[][] {
+				{ "LameBrain", (Supplier<Brain>) LameBrain::new },
+				{ "CheeseBrain", (Supplier<Brain>) CheeseBrain::new },
+				{ "BeamBrain", (Supplier<Brain>) () -> new BeamBrain(3, 1) },
+		});
+	}
+
+	// Lets a fresh brain move the current piece until it is placed
+	private void place(Board board) {
+		Brain brain = brains.get();
+		for (int moves = 0; board.getCurrentPiece() != null; moves++) {
+			assertTrue("brain never placed the piece", moves < 100);
+			board.move(brain.nextMove(board));
+		}
+	}
+
+	// A junk stack sitting on the given number of full rows, which the next move will clear
+	private Piece.PieceType[][] stackOnFullRows(long seed, int full) {
+		Board junk = new TetrisBoard(WIDTH, HEIGHT);
+		Random random = new Random(seed);
+		for (int i = 0; i < 10; i++) {
+			Piece piece = new TetrisPiece(Piece.PieceType.values()[random.nextInt(7)]);
+			junk.nextPiece(piece, new Point(random.nextInt(WIDTH - 3), HEIGHT - 4));
+			junk.move(Board.Action.DROP);
+			junk.move(Board.Action.NOTHING);
+		}
+
+		Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT][WIDTH];
+		for (int y = 0; y < full; y++)
+			Arrays.fill(grid[y], Piece.PieceType.STICK);
+		for (int y = full; y < HEIGHT - 4; y++)
+			for (int x = 0; x < WIDTH; x++)
+				grid[y][x] = junk.getGrid(x, y - full);
+		return grid;
+	}
+
+	@Test
+	public void testPendingClear() {
+		for (long seed = 0; seed < 20; seed++) {
+			for (int full = 1; full <= 4; full++) {
+				Piece piece = new TetrisPiece(Piece.PieceType.values()[(int) (seed % 7)]);
+				Board pending = new TetrisBoard(WIDTH, HEIGHT);
+				pending.restore(stackOnFullRows(seed, full), piece, new Point(WIDTH / 2 - 1, HEIGHT - 4), 0);
+				// the same position with the full rows already gone
+				Board cleared = pending.testMove(Board.Action.NOTHING);
+				assertEquals(full, cleared.getRowsCleared());
+
+				// the rows about to go shouldn't change where the piece ends up
+				place(pending);
+				place(cleared);
+				Board expected = cleared.testMove(Board.Action.NOTHING);
+				Board actual = pending.testMove(Board.Action.NOTHING);
+				assertEquals(expected, actual);
+				assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import assignment.*;
+import java.awt.*;
+
+public class BrainWorkerTest {
+
+	private static final int WIDTH = 10, HEIGHT = 24;
+
+	// A brain that always moves left, but only once it is let go
+	private static class HeldBrain implements Brain {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		volatile Board seen;
+
+		public Board.Action nextMove(Board currentBoard) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw new IllegalStateException(e);
+			}
+			seen = currentBoard;
+			return Board.Action.LEFT;
+		}
+	}
+
+	private Board boardWithPiece() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		board.nextPiece(new TetrisPiece(Piece.PieceType.T), new Point(3, HEIGHT - 4));
+		return board;
+	}
+
+	// Polls until the brain answers, returning what poll gave back once it did
+	private Board.Action awaitDecision(BrainWorker worker) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (worker.isThinking()) {
+			assertTrue("brain never answered", System.nanoTime() < deadline);
+			Board.Action action = worker.poll();
+			if (action != null)
+				return action;
+			Thread.sleep(1);
+		}
+		return null;
+	}
+
+	@Test
+	public void testCurrentDecisionIsPlayed() throws Exception {
+		HeldBrain brain = new HeldBrain();
+		try (BrainWorker worker = new BrainWorker(brain)) {
+			worker.think(boardWithPiece(), Collections.emptyList());
+			assertTrue(worker.isThinking());
+			assertNull(worker.poll());
+
+			brain.release.countDown();
+			assertEquals(Board.Action.LEFT, awaitDecision(worker));
+			assertFalse(worker.isThinking());
+		}
+	}
+
+	@Test
+	public void testStaleDecisionIsDropped() throws Exception {
+		HeldBrain brain = new HeldBrain();
+		try (BrainWorker worker = new BrainWorker(brain)) {
+			worker.think(boardWithPiece(), Collections.emptyList());
+
+			// the board moves on while the brain is still deciding
+			worker.boardChanged();
+			brain.release.countDown();
+			assertNull(awaitDecision(worker));
+			assertFalse(worker.isThinking());
+
+			// asking again about the board as it is now gets an answer
+			worker.think(boardWithPiece(), Collections.emptyList());
+			assertEquals(Board.Action.LEFT, awaitDecision(worker));
+		}
+	}
+
+	@Test
+	public void testBrainSeesSnapshot() throws Exception {
+		HeldBrain brain = new HeldBrain();
+		try (BrainWorker worker = new BrainWorker(brain)) {
+			Board board = boardWithPiece();
+			worker.think(board, Collections.emptyList());
+
+			// moving the real board can't reach the copy the brain is deciding on
+			board.move(Board.Action.RIGHT);
+			worker.boardChanged();
+			brain.release.countDown();
+			awaitDecision(worker);
+			assertEquals(new Point(3, HEIGHT - 4), brain.seen.getCurrentPiecePosition());
+		}
+	}
+
+	@Test
+	public void testCloseStopsBrain() throws Exception {
+		HeldBrain brain = new HeldBrain();
+		BrainWorker worker = new BrainWorker(brain);
+		worker.think(boardWithPiece(), Collections.emptyList());
+
+		// closing interrupts the decision in progress, and the worker takes no more
+		worker.close();
+		assertTrue("brain was never interrupted", brain.interrupted.await(10, TimeUnit.SECONDS));
+		try {
+			worker.think(boardWithPiece(), Collections.emptyList());
+			fail("Thought after being closed");
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+	}
+}
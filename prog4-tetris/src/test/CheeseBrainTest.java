@@ -0,0 +1,106 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+public class CheeseBrainTest {
+
+	// The flood fill holeScore used before it moved to a union-find: the empty rows at the top are
+	// blocked off, and every other connected region of empty cells counts as a hole
+	private static double floodFillHoleScore(Board board) {
+		int width = board.getWidth(), height = board.getHeight();
+		boolean[][] visited = new boolean[width][height];
+		for (int y = height - 1; y >= 0 && board.getRowWidth(y) == 0; y--)
+			for (int x = 0; x < width; x++)
+				visited[x][y] = true;
+
+		int holes = 0;
+		Deque<Point> stack = new ArrayDeque<>();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (visited[x][y] || board.getGrid(x, y) != null)
+					continue;
+				holes++;
+				visited[x][y] = true;
+				stack.push(new Point(x, y));
+				while (!stack.isEmpty()) {
+					Point p = stack.pop();
+					for (Point n : new Point[] { new Point(p.x + 1, p.y), new Point(p.x - 1, p.y),
+							new Point(p.x, p.y + 1), new Point(p.x, p.y - 1) }) {
+						if (n.x < 0 || n.y < 0 || n.x >= width || n.y >= height || visited[n.x][n.y]
+								|| board.getGrid(n.x, n.y) != null)
+							continue;
+						visited[n.x][n.y] = true;
+						stack.push(n);
+					}
+				}
+			}
+		}
+		return holes * holes;
+	}
+
+	private static double holeScore(Board board) throws Exception {
+		Method holeScore = CheeseBrain.class.getDeclaredMethod("holeScore", Board.class);
+		holeScore.setAccessible(true);
+		return (double) holeScore.invoke(new CheeseBrain(), board);
+	}
+
+	// Builds a board from rows drawn bottom first, '#' for a filled cell
+	private static Board board(int height, String... rows) {
+		int width = rows[0].length();
+		Piece.PieceType[][] grid = new Piece.PieceType[height][width];
+		for (int y = 0; y < rows.length; y++)
+			for (int x = 0; x < width; x++)
+				if (rows[y].charAt(x) == '#')
+					grid[y][x] = Piece.PieceType.T;
+		Board board = new TetrisBoard(width, height);
+		board.restore(grid, null, null, 0);
+		return board;
+	}
+
+	@Test
+	public void testEnclosedHoles() throws Exception {
+		Board[] boards = {
+				// against the floor
+				board(8, "## ###", "######"),
+				board(8, "#  ###", "######", " #####"),
+				// against each wall
+				board(8, " #####", "######"),
+				board(8, "##### ", "######"),
+				board(8, "#### #", "#    #", "######"),
+				// in the corners, under an overhang and open to the top
+				board(8, " #### ", " #  # ", "######"),
+				board(8, "#     ", "######", "    ##"),
+		};
+		for (Board board : boards)
+			assertEquals(floodFillHoleScore(board), holeScore(board), 0);
+		assertEquals(1, holeScore(boards[0]), 0);
+	}
+
+	@Test
+	public void testMatchesFloodFill() throws Exception {
+		Random random = new Random(12);
+		for (int i = 0; i < 500; i++) {
+			int width = 3 + random.nextInt(10), height = 4 + random.nextInt(20);
+			int stack = random.nextInt(height + 1);
+			double density = random.nextDouble();
+			Piece.PieceType[][] grid = new Piece.PieceType[height][width];
+			for (int y = 0; y < stack; y++) {
+				for (int x = 0; x < width; x++)
+					if (random.nextDouble() < density)
+						grid[y][x] = Piece.PieceType.values()[random.nextInt(7)];
+				// too many full rows can't be restored
+				grid[y][random.nextInt(width)] = null;
+			}
+			Board board = new TetrisBoard(width, height);
+			board.restore(grid, null, null, 0);
+			assertEquals(floodFillHoleScore(board), holeScore(board), 0);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+
+public class DatasetExporterTest {
+
+	private static final int HORIZON = 5, MAX_PIECES = 60;
+	private static final int RECORD_SIZE = 8 + new BoardCodec(Playfield.WIDTH,
+			Playfield.HEIGHT + Playfield.TOP_SPACE).getRecordSize();
+	private static final int HEADER_SIZE = 23;
+
+	private void export(Path file, int games) throws IOException {
+		try(DatasetExporter exporter = new DatasetExporter(file, CheeseBrain::new, HORIZON, 9, MAX_PIECES)) {
+			exporter.run(games);
+		}
+	}
+
+	@Test
+	public void testEveryMoveOfAToppedOutGame() throws IOException {
+		Path file = Files.createTempFile("tetris", ".dataset");
+		try {
+			// the lame brain tops out well before the piece limit, so no example is left out
+			try(DatasetExporter exporter = new DatasetExporter(file, LameBrain::new, HORIZON, 4, 10000)) {
+				exporter.run(2);
+			}
+			SplittableRandom seeds = new SplittableRandom(4);
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+			data.position(HEADER_SIZE);
+			for(int game = 0; game < 2; game++) {
+				// one example per brain decision; gravity's moves aren't the brain's
+				Brain lame = new LameBrain();
+				int[] decisions = { 0 };
+				GameResult expected = new HeadlessTetris(currentBoard -> {
+					decisions[0]++;
+					return lame.nextMove(currentBoard);
+				}, seeds.nextLong()).run(10000);
+				assertTrue(expected.isToppedOut());
+				int examples = 0, ended = 0;
+				for(;;) {
+					int start = data.position();
+					assertEquals(game, data.getInt());
+					int action = data.get(), flags = data.get(), rows = data.getShort();
+					data.position(start + RECORD_SIZE);
+					if(flags == DatasetExporter.GAME_END)
+						break;
+					assertTrue(action >= 0 && action < Board.Action.values().length);
+					assertTrue(rows >= 0 && rows <= 4 * HORIZON);
+					examples++;
+					if((flags & DatasetExporter.ENDED) != 0)
+						ended++;
+				}
+				assertEquals(decisions[0], examples);
+				assertTrue(ended > 0);
+			}
+			assertFalse(data.hasRemaining());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testSpawnFailureCompletesTheFirstWindow() throws IOException {
+		// dropping every piece straight down ends the game when a piece has no room to spawn,
+		// and each piece takes two moves: the drop, and the one that brings in the next piece
+		Brain dropper = board -> Board.Action.DROP;
+		long gameSeed = new SplittableRandom(6).nextLong();
+		GameResult expected = new HeadlessTetris(dropper, gameSeed).run(10000);
+		assertTrue(expected.isToppedOut());
+
+		// the piece that failed to spawn still entered, so with a horizon of exactly the pieces
+		// placed, the first piece's window is complete and only the rest ended early
+		int horizon = expected.getPieces() - 1;
+		Path file = Files.createTempFile("tetris", ".dataset");
+		try {
+			try(DatasetExporter exporter = new DatasetExporter(file, () -> dropper, horizon, 6, 10000)) {
+				exporter.run(1);
+			}
+			ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+			data.position(HEADER_SIZE);
+			for(int i = 0; i < expected.getMoves(); i++) {
+				int start = data.position();
+				data.getInt();
+				data.get();
+				int flags = data.get();
+				data.position(start + RECORD_SIZE);
+				assertEquals(i < 2 ? 0 : DatasetExporter.ENDED, flags);
+			}
+			data.position(data.position() + 5);
+			assertEquals(DatasetExporter.GAME_END, data.get());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testResumeAfterCrash() throws IOException {
+		Path whole = Files.createTempFile("tetris", ".dataset");
+		Path crashed = Files.createTempFile("tetris", ".dataset");
+		try {
+			export(whole, 3);
+
+			// cut the file off partway through the second game's examples
+			export(crashed, 2);
+			try(FileChannel channel = FileChannel.open(crashed, StandardOpenOption.WRITE)) {
+				channel.truncate(channel.size() - 20 * RECORD_SIZE - 17);
+			}
+			try(DatasetExporter exporter = new DatasetExporter(crashed, CheeseBrain::new, HORIZON, 9, MAX_PIECES)) {
+				assertEquals(1, exporter.getNextGame());
+				exporter.run(3);
+			}
+			assertTrue(Arrays.equals(Files.readAllBytes(whole), Files.readAllBytes(crashed)));
+
+			// a finished file has nothing left to do
+			try(DatasetExporter exporter = new DatasetExporter(crashed, CheeseBrain::new, HORIZON, 9, MAX_PIECES)) {
+				assertEquals(3, exporter.getNextGame());
+			}
+		} finally {
+			Files.delete(whole);
+			Files.delete(crashed);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testResumeWithOtherSettings() throws IOException {
+		Path file = Files.createTempFile("tetris", ".dataset");
+		try {
+			export(file, 1);
+			new DatasetExporter(file, CheeseBrain::new, HORIZON + 1, 9, MAX_PIECES).close();
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
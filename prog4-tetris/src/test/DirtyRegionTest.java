@@ -0,0 +1,142 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class DirtyRegionTest {
+
+	private static final int WIDTH = 10, HEIGHT = 24;
+
+	private Board boardWith(Piece.PieceType type, int x, int y) {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		board.nextPiece(new TetrisPiece(type), new Point(x, y));
+		return board;
+	}
+
+	@Test
+	public void testStartsEmpty() {
+		DirtyRegion dirty = new DirtyRegion();
+		assertTrue(dirty.isEmpty());
+		assertTrue(dirty.take(WIDTH, HEIGHT).isEmpty());
+	}
+
+	@Test
+	public void testMarksPieceBounds() {
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markPiece(boardWith(Piece.PieceType.T, 3, 20));
+		assertFalse(dirty.isEmpty());
+		assertEquals(Collections.singletonList(new Rectangle(3, 20, 3, 3)), dirty.take(WIDTH, HEIGHT));
+
+		// taking the region clears it
+		assertTrue(dirty.isEmpty());
+		assertTrue(dirty.take(WIDTH, HEIGHT).isEmpty());
+	}
+
+	@Test
+	public void testKeepsBothSidesOfAMoveApart() {
+		Board board = boardWith(Piece.PieceType.SQUARE, 4, 20);
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markPiece(board);
+		board.move(Board.Action.LEFT);
+		board.move(Board.Action.DOWN);
+		dirty.markPiece(board);
+		assertEquals(Arrays.asList(new Rectangle(4, 20, 2, 2), new Rectangle(3, 19, 2, 2)),
+				dirty.take(WIDTH, HEIGHT));
+	}
+
+	@Test
+	public void testDropMarksOnlyWhereThePieceLands() {
+		Board board = boardWith(Piece.PieceType.STICK, 3, 20);
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markPiece(board);
+		dirty.markLanding(board);
+		board.move(Board.Action.DROP);
+		// the piece is placed, so there is nothing more to mark
+		dirty.markPiece(board);
+		// the rows in between are left alone
+		assertEquals(Arrays.asList(new Rectangle(3, 20, 4, 4), new Rectangle(3, 0, 4, 4)),
+				dirty.take(WIDTH, HEIGHT));
+		for (int x = 3; x < 7; x++)
+			assertNotNull(board.getGrid(x, 0));
+	}
+
+	@Test
+	public void testLandingUnderAnOverhang() {
+		// a roof over columns 0-3, with a square tucked under it
+		Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT][WIDTH];
+		for (int x = 0; x < 4; x++)
+			grid[10][x] = Piece.PieceType.T;
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		board.restore(grid, new TetrisPiece(Piece.PieceType.SQUARE), new Point(1, 5), 0);
+
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markLanding(board);
+		assertEquals(Collections.singletonList(new Rectangle(1, 0, 2, 7)), dirty.take(WIDTH, HEIGHT));
+	}
+
+	@Test
+	public void testMarksRowsFrom() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markRowsFrom(board, 5);
+		assertEquals(Collections.singletonList(new Rectangle(0, 5, WIDTH, HEIGHT - 5)), dirty.take(WIDTH, HEIGHT));
+	}
+
+	@Test
+	public void testLowestFullRow() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		assertEquals(HEIGHT, DirtyRegion.lowestFullRow(board));
+
+		Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT][WIDTH];
+		for (int x = 0; x < WIDTH; x++) {
+			grid[0][x] = x == 4 ? null : Piece.PieceType.T;
+			grid[2][x] = Piece.PieceType.T;
+			grid[3][x] = Piece.PieceType.T;
+		}
+		board.restore(grid, null, null, 0);
+		assertEquals(2, DirtyRegion.lowestFullRow(board));
+	}
+
+	@Test
+	public void testEmptyStaysEmpty() {
+		DirtyRegion dirty = new DirtyRegion();
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		dirty.markPiece(board);
+		dirty.markLanding(board);
+		assertTrue(dirty.isEmpty());
+	}
+
+	@Test
+	public void testClipsToBoard() {
+		// a stick's bounding box sticks out past the wall when it stands in the first column
+		Board board = boardWith(Piece.PieceType.STICK, 3, 20);
+		board.move(Board.Action.CLOCKWISE);
+		while (board.move(Board.Action.LEFT) == Board.Result.SUCCESS);
+		assertTrue(board.getCurrentPiecePosition().x < 0);
+
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markPiece(board);
+		Rectangle cells = dirty.take(WIDTH, HEIGHT).get(0);
+		assertEquals(0, cells.x);
+		assertEquals(board.getCurrentPiecePosition().x + 4, cells.width);
+
+		// nothing on the board at all
+		dirty.markPiece(board);
+		assertTrue(dirty.take(0, HEIGHT).isEmpty());
+	}
+
+	@Test
+	public void testClear() {
+		DirtyRegion dirty = new DirtyRegion();
+		dirty.markPiece(boardWith(Piece.PieceType.T, 3, 20));
+		dirty.clear();
+		assertTrue(dirty.isEmpty());
+		assertTrue(dirty.take(WIDTH, HEIGHT).isEmpty());
+	}
+}
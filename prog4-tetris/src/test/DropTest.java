@@ -0,0 +1,75 @@
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+@RunWith(Parameterized.class)
+public class DropTest {
+
+	private static final int WIDTH = 6, HEIGHT = 48;
+
+	private Class<? extends Board> boardClass;
+
+	public DropTest(Class<? extends Board> boardClass) {
+		this.boardClass = boardClass;
+	}
+
+	@Parameters
+	public static Collection<Object[]> getTestData() {
+		return Arrays.asList(new Object[][] { { TetrisBoard.class }, { BitTetrisBoard.class } });
+	}
+
+	private Board newBoard() throws Exception {
+		return boardClass.getConstructor(int.class, int.class).newInstance(WIDTH, HEIGHT);
+	}
+
+	private void drop(Board board, Piece.PieceType type, int x) {
+		board.nextPiece(new TetrisPiece(type), new Point(x, HEIGHT - 4));
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.DROP));
+	}
+
+	@Test
+	public void testDropMatchesStepping() throws Exception {
+		// every rotation dropped from the top of a tall board lands where stepping down does
+		Board board = newBoard();
+		drop(board, Piece.PieceType.T, 0);
+		drop(board, Piece.PieceType.LEFT_DOG, 3);
+		for (Piece.PieceType type : Piece.PieceType.values()) {
+			Piece piece = new TetrisPiece(type);
+			for (int rot = 0; rot < 4; rot++, piece = piece.clockwisePiece()) {
+				board.nextPiece(piece, new Point(1, HEIGHT - 4));
+				Board stepped = board.testMove(Board.Action.NOTHING);
+				while (stepped.move(Board.Action.DOWN) != Board.Result.PLACE);
+				assertTrue(stepped.equals(board.testMove(Board.Action.DROP)));
+			}
+		}
+	}
+
+	@Test
+	public void testDropUnderOverhang() throws Exception {
+		// two pillars with a stick resting across the left one, leaving a gap under it
+		Board board = newBoard();
+		drop(board, Piece.PieceType.SQUARE, 0);
+		drop(board, Piece.PieceType.SQUARE, 0);
+		drop(board, Piece.PieceType.SQUARE, 4);
+		drop(board, Piece.PieceType.SQUARE, 4);
+		drop(board, Piece.PieceType.STICK, 0);
+		assertEquals(5, board.getColumnHeight(2));
+
+		// a square sitting under the stick has to fall past the column heights
+		board.nextPiece(new TetrisPiece(Piece.PieceType.SQUARE), new Point(2, 2));
+		board.move(Board.Action.DROP);
+		assertEquals(Piece.PieceType.SQUARE, board.getGrid(2, 0));
+		assertEquals(Piece.PieceType.SQUARE, board.getGrid(3, 1));
+		assertNull(board.getGrid(2, 2));
+		assertEquals(5, board.getColumnHeight(2));
+	}
+}
@@ -0,0 +1,86 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import assignment.*;
+
+public class HeadlessTetrisTest {
+
+	@Test
+	public void testSameSeedSameGame() {
+		GameResult first = new HeadlessTetris(new CheeseBrain(), 42).run(300);
+		GameResult second = new HeadlessTetris(new CheeseBrain(), 42).run(300);
+		assertEquals(first.getPieces(), second.getPieces());
+		assertEquals(first.getRowsCleared(), second.getRowsCleared());
+		assertEquals(first.getMoves(), second.getMoves());
+	}
+
+	@Test
+	public void testPieceLimit() {
+		HeadlessTetris game = new HeadlessTetris(new CheeseBrain(), 7);
+		GameResult result = game.run(50);
+		assertEquals(50, result.getPieces());
+		assertFalse(result.isToppedOut());
+		assertTrue(game.isGameOn());
+	}
+
+	@Test
+	public void testLameBrainTopsOut() {
+		// never rotating, the lame brain can't keep up for long
+		HeadlessTetris game = new HeadlessTetris(new LameBrain(), 3);
+		GameResult result = game.run(10000);
+		assertTrue(result.isToppedOut());
+		assertFalse(game.step());
+		assertTrue(result.getPieces() < 10000);
+	}
+
+	@Test(timeout = 10000)
+	public void testGravityPlacesPiecesForIdleBrain() {
+		// a brain that never moves still has its pieces pulled down and placed
+		HeadlessTetris game = new HeadlessTetris(currentBoard -> Board.Action.NOTHING, 5);
+		GameResult result = game.run(5);
+		assertEquals(5, result.getPieces());
+		assertFalse(result.isToppedOut());
+
+		// the four pieces before the current one all landed
+		Board board = game.getBoard();
+		int cells = 0;
+		for (int y = 0; y < board.getHeight(); y++)
+			cells += board.getRowWidth(y);
+		assertEquals(16, cells);
+	}
+
+	// Plays a seeded game, returning every move the brain made followed by the board it ended on
+	private java.util.List<Object> recordGame(Brain brain, long seed) {
+		java.util.List<Object> moves = new ArrayList<>();
+		HeadlessTetris game = new HeadlessTetris(new Brain() {
+			public Board.Action nextMove(Board currentBoard) {
+				Board.Action action = brain.nextMove(currentBoard);
+				moves.add(action);
+				return action;
+			}
+
+			public void setPreview(java.util.List<Piece> upcoming) {
+				brain.setPreview(upcoming);
+			}
+		}, seed);
+		game.run(150);
+		moves.add(game.getBoard());
+		return moves;
+	}
+
+	@Test
+	public void testPooledBrainPlaysSameGame() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (long seed = 0; seed < 3; seed++)
+				assertEquals(recordGame(new CheeseBrain(null), seed), recordGame(new CheeseBrain(pool), seed));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
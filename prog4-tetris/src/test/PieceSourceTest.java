@@ -0,0 +1,65 @@
+package test;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+
+public class PieceSourceTest {
+
+	private List<Piece> draw(PieceSource source, int count) {
+		List<Piece> pieces = new ArrayList<>();
+		for(int i = 0; i < count; i++)
+			pieces.add(source.next());
+		return pieces;
+	}
+
+	@Test
+	public void testSameSeedSamePieces() {
+		for(Randomizer randomizer : Randomizer.values())
+			assertEquals(draw(randomizer.create(99), 500), draw(randomizer.create(99), 500));
+	}
+
+	@Test
+	public void testUniformMatchesOldGenerator() {
+		// games seeded before piece sources existed must still get the same pieces
+		Piece.PieceType[] order = { Piece.PieceType.STICK, Piece.PieceType.SQUARE, Piece.PieceType.T,
+				Piece.PieceType.LEFT_L, Piece.PieceType.RIGHT_L, Piece.PieceType.LEFT_DOG, Piece.PieceType.RIGHT_DOG };
+		Random random = new Random(17);
+		PieceSource source = Randomizer.UNIFORM.create(17);
+		for(int i = 0; i < 500; i++)
+			assertEquals(order[random.nextInt(order.length)], source.next().getType());
+	}
+
+	@Test
+	public void testEveryBagHoldsEachPieceOnce() {
+		PieceSource source = Randomizer.SEVEN_BAG.create(3);
+		for(int bag = 0; bag < 200; bag++) {
+			Set<Piece.PieceType> types = EnumSet.noneOf(Piece.PieceType.class);
+			for(int i = 0; i < 7; i++)
+				types.add(source.next().getType());
+			assertEquals(7, types.size());
+		}
+	}
+
+	@Test
+	public void testQueuePreview() {
+		PieceQueue queue = new PieceQueue(Randomizer.SEVEN_BAG.create(8), 3);
+		List<Piece> expected = draw(Randomizer.SEVEN_BAG.create(8), 100);
+		for(int i = 0; i < 90; i++) {
+			assertEquals(expected.subList(i, i + 3), queue.getPreview());
+			assertEquals(expected.get(i), queue.next());
+		}
+	}
+
+	@Test
+	public void testBagGamesAreRepeatable() {
+		GameResult first = new HeadlessTetris(new CheeseBrain(), Randomizer.SEVEN_BAG, 12).run(200);
+		GameResult second = new HeadlessTetris(new CheeseBrain(), Randomizer.SEVEN_BAG, 12).run(200);
+		assertEquals(first.getMoves(), second.getMoves());
+		assertEquals(first.getRowsCleared(), second.getRowsCleared());
+	}
+}
@@ -0,0 +1,88 @@
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+@RunWith(Parameterized.class)
+public class PlacementTest {
+
+	private static final int WIDTH = 10, HEIGHT = 24;
+
+	private Piece piece;
+	private int expectedCount;
+
+	public PlacementTest(Piece.PieceType type, int expectedCount) {
+		this.piece = new TetrisPiece(type);
+		this.expectedCount = expectedCount;
+	}
+
+	@Parameters
+	public static Collection<Object[]> getTestData() {
+		// distinct resting spots on an empty 10-wide board; symmetric rotations collapse together
+		return Arrays.asList(new Object[][] {
+				{ Piece.PieceType.SQUARE, 9 },
+				{ Piece.PieceType.STICK, 17 },
+				{ Piece.PieceType.T, 34 },
+				{ Piece.PieceType.LEFT_L, 34 },
+				{ Piece.PieceType.RIGHT_L, 34 },
+				{ Piece.PieceType.LEFT_DOG, 17 },
+				{ Piece.PieceType.RIGHT_DOG, 17 },
+		});
+	}
+
+	private Point spawn() {
+		return new Point(WIDTH / 2 - piece.getWidth() / 2, HEIGHT - 4);
+	}
+
+	@Test
+	public void testEmptyBoardCount() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		assertEquals(expectedCount, board.legalPlacements(piece, spawn()).size());
+		assertEquals(expectedCount, new BitTetrisBoard(WIDTH, HEIGHT).legalPlacements(piece, spawn()).size());
+	}
+
+	@Test
+	public void testPathsReachPlacements() {
+		// put some junk on the board so kicks and tucks come into play
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		Random random = new Random(11);
+		for (int i = 0; i < 8; i++) {
+			Piece junk = new TetrisPiece(Piece.PieceType.values()[random.nextInt(7)]);
+			board.nextPiece(junk, new Point(random.nextInt(WIDTH - 3), HEIGHT - 4));
+			board.move(Board.Action.DROP);
+		}
+		board.move(Board.Action.NOTHING);
+		board.nextPiece(piece, spawn());
+
+		Set<Set<Point>> seen = new HashSet<>();
+		for (Placement placement : board.legalPlacements(piece, spawn())) {
+			Board placed = board.testMove(Board.Action.NOTHING);
+			for (Board.Action act : placement.getActions())
+				assertNotEquals(Board.Result.OUT_BOUNDS, placed.move(act));
+			assertNull(placed.getCurrentPiece());
+
+			Set<Point> cells = new HashSet<>();
+			for (Point p : placement.getPiece().getBody())
+				cells.add(new Point(placement.getX() + p.x, placement.getY() + p.y));
+			for (Point p : cells) {
+				assertNull(board.getGrid(p.x, p.y));
+				assertEquals(piece.getType(), placed.getGrid(p.x, p.y));
+			}
+			assertTrue(seen.add(cells));
+		}
+	}
+
+	@Test
+	public void testBlockedStart() {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		assertTrue(board.legalPlacements(piece, new Point(-10, 0)).isEmpty());
+	}
+}
@@ -0,0 +1,84 @@
+package test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+
+public class PositionTest {
+
+	private static final int WIDTH = Playfield.WIDTH, HEIGHT = Playfield.HEIGHT + Playfield.TOP_SPACE;
+
+	// Copies of the board after every move of a short seeded game
+	private List<Board> positions(long seed) {
+		List<Board> boards = new ArrayList<>();
+		HeadlessTetris game = new HeadlessTetris(new CheeseBrain(), seed);
+		while(game.getPieces() < 60 && game.step())
+			boards.add(game.getBoard().testMove(Board.Action.NOTHING));
+		return boards;
+	}
+
+	private void assertSamePosition(Board expected, Board actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.getZobristHash(), actual.getZobristHash());
+		assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+		assertEquals(expected.getMaxHeight(), actual.getMaxHeight());
+	}
+
+	@Test
+	public void testCodecRoundTrip() {
+		BoardCodec codec = new BoardCodec(WIDTH, HEIGHT);
+		assertEquals(99, codec.getRecordSize());
+		ByteBuffer buffer = ByteBuffer.allocate(codec.getRecordSize());
+		Board board = new BitTetrisBoard(WIDTH, HEIGHT);
+		for(Board expected : positions(1)) {
+			buffer.clear();
+			codec.write(expected, buffer);
+			assertFalse(buffer.hasRemaining());
+			buffer.flip();
+			codec.read(buffer, board);
+			assertSamePosition(expected, board);
+		}
+	}
+
+	@Test
+	public void testCorpusFile() throws IOException {
+		Path file = Files.createTempFile("tetris", ".positions");
+		try {
+			List<Board> boards = positions(2);
+			try(PositionWriter writer = new PositionWriter(file, WIDTH, HEIGHT)) {
+				writer.writeAll(boards);
+				assertEquals(boards.size(), writer.getCount());
+			}
+
+			try(PositionReader reader = new PositionReader(file)) {
+				assertEquals(boards.size(), reader.getCount());
+				Board board = new TetrisBoard(WIDTH, HEIGHT);
+				for(int i = 0; reader.hasNext(); i++) {
+					reader.next(board);
+					assertSamePosition(boards.get(i), board);
+				}
+				// and out of order, into the same board
+				for(int i = boards.size() - 1; i >= 0; i -= 7) {
+					reader.read(i, board);
+					assertSamePosition(boards.get(i), board);
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongSizeBoard() {
+		new BoardCodec(WIDTH, HEIGHT).write(new TetrisBoard(WIDTH + 1, HEIGHT), ByteBuffer.allocate(200));
+	}
+}
@@ -0,0 +1,261 @@
+package test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.awt.Point;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+
+public class ReplayTest {
+
+	@Test
+	public void testEveryActionRoundTrips() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			// 3 bits don't divide a byte, so check a run that ends partway through one
+			Board.Action[] actions = Board.Action.values();
+			int count = 8 * actions.length + 5;
+			try(ReplayWriter writer = new ReplayWriter(file, 10, 24, -5)) {
+				for(int i = 0; i < count; i++)
+					writer.write(actions[(i * 5) % actions.length]);
+			}
+			try(ReplayReader reader = new ReplayReader(file)) {
+				assertEquals(10, reader.getWidth());
+				assertEquals(24, reader.getHeight());
+				assertEquals(-5, reader.getSeed());
+				assertEquals(count, reader.getMoves());
+				for(int i = 0; i < count; i++)
+					assertEquals(actions[(i * 5) % actions.length], reader.next());
+				assertFalse(reader.hasNext());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testReplayRebuildsGame() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			HeadlessTetris game = new HeadlessTetris(new CheeseBrain(), 11);
+			GameResult recorded;
+			try(ReplayWriter writer = new ReplayWriter(file, Playfield.WIDTH,
+					Playfield.HEIGHT + Playfield.TOP_SPACE, game.getSeed())) {
+				game.setRecorder(writer);
+				recorded = game.run(200);
+			}
+
+			HeadlessTetris replayed = ReplayPlayer.replay(file);
+			assertEquals(recorded.getPieces(), replayed.getPieces());
+			assertEquals(recorded.getMoves(), replayed.getMoves());
+			assertEquals(recorded.getRowsCleared(), replayed.getBoard().getRowsCleared());
+			Board expected = game.getBoard(), actual = replayed.getBoard();
+			for(int y = 0; y < expected.getHeight(); y++)
+				for(int x = 0; x < expected.getWidth(); x++)
+					assertEquals(expected.getGrid(x, y), actual.getGrid(x, y));
+			assertEquals(expected.getCurrentPiece(), actual.getCurrentPiece());
+			assertEquals(expected.getCurrentPiecePosition(), actual.getCurrentPiecePosition());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testBagGameReplays() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			HeadlessTetris game = new HeadlessTetris(new CheeseBrain(), Randomizer.SEVEN_BAG, 31);
+			try(ReplayWriter writer = new ReplayWriter(file, Playfield.WIDTH,
+					Playfield.HEIGHT + Playfield.TOP_SPACE, game.getRandomizer(), game.getSeed())) {
+				game.setRecorder(writer);
+				game.run(150);
+			}
+			HeadlessTetris replayed = ReplayPlayer.replay(file);
+			assertEquals(Randomizer.SEVEN_BAG, replayed.getRandomizer());
+			assertEquals(game.getBoard(), replayed.getBoard());
+			assertEquals(game.getPieces(), replayed.getPieces());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			Files.write(file, new byte[64]);
+			new ReplayReader(file).close();
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRejectsFilesTooBigToMap() throws Exception {
+		Method checkSize = ReplayReader.class.getDeclaredMethod("checkSize", long.class, Path.class);
+		checkSize.setAccessible(true);
+		Path file = Paths.get("big.replay");
+		checkSize.invoke(null, (long) Integer.MAX_VALUE, file);
+		try {
+			checkSize.invoke(null, Integer.MAX_VALUE + 1L, file);
+			fail("Accepted a file too big to map");
+		} catch(InvocationTargetException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	@Test
+	public void testRejectsOtherVersions() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			try(ReplayWriter writer = new ReplayWriter(file, 10, 24, 1)) {
+				writer.write(Board.Action.DROP);
+			}
+			// every version from 0 to one past the one just written, except that one
+			byte[] bytes = Files.readAllBytes(file);
+			byte current = bytes[4];
+			for(byte version = 0; version <= current + 1; version++) {
+				if(version == current)
+					continue;
+				bytes[4] = version;
+				Files.write(file, bytes);
+				try {
+					new ReplayReader(file).close();
+					fail("Read a version " + version + " replay");
+				} catch(IOException e) {
+					// expected
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testSeekMatchesReplay() throws IOException {
+		Path file = Files.createTempFile("tetris", ".replay");
+		try {
+			HeadlessTetris game = new HeadlessTetris(new CheeseBrain(), 23);
+			try(ReplayWriter writer = new ReplayWriter(file, Playfield.WIDTH,
+					Playfield.HEIGHT + Playfield.TOP_SPACE, game.getRandomizer(), game.getSeed(), 50)) {
+				game.setRecorder(writer);
+				game.run(300);
+			}
+
+			try(ReplayReader reader = new ReplayReader(file)) {
+				assertTrue(reader.getKeyFrames() > 10);
+			}
+			for(long move : new long[] { 0, 1, 49, 50, 51, 777, game.getMoves() / 2, game.getMoves() - 1 }) {
+				HeadlessTetris sought = ReplayPlayer.seek(file, move);
+				HeadlessTetris stepped = replayTo(file, move);
+				assertEquals(move, sought.getMoves());
+				assertEquals(stepped.getPieces(), sought.getPieces());
+				assertEquals(stepped.getBoard(), sought.getBoard());
+				assertEquals(stepped.getBoard().getRowsCleared(), sought.getBoard().getRowsCleared());
+
+				// the rest of the game plays out the same from the sought position
+				try(ReplayReader reader = new ReplayReader(file)) {
+					for(long i = 0; i < move; i++)
+						reader.next();
+					while(reader.hasNext())
+						sought.play(reader.next());
+				}
+				assertEquals(game.getPieces(), sought.getPieces());
+				assertEquals(game.getBoard(), sought.getBoard());
+				assertEquals(game.getBoard().getRowsCleared(), sought.getBoard().getRowsCleared());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRestoreThenPlay() {
+		for(Board original : new Board[] { new TetrisBoard(8, 20), new BitTetrisBoard(8, 20) }) {
+			Random random = new Random(5);
+			Board.Action[] actions = Board.Action.values();
+			Piece[] pieces = new Piece[Piece.PieceType.values().length];
+			for(Piece.PieceType type : Piece.PieceType.values())
+				pieces[type.ordinal()] = new TetrisPiece(type);
+			Board copy = original instanceof TetrisBoard ? new TetrisBoard(8, 20) : new BitTetrisBoard(8, 20);
+
+			for(int step = 0; step < 3000; step++) {
+				if(original.getCurrentPiece() == null) {
+					Piece piece = pieces[random.nextInt(pieces.length)];
+					Point spawn = new Point(4 - piece.getWidth() / 2, 16);
+					try {
+						original.nextPiece(piece, spawn);
+					} catch(IllegalArgumentException e) {
+						break;
+					}
+					copy.nextPiece(piece, spawn);
+				}
+
+				// restore from scratch now and then; pending clears must carry over
+				if(step % 7 == 0) {
+					Piece.PieceType[][] grid = new Piece.PieceType[20][8];
+					for(int y = 0; y < 20; y++)
+						for(int x = 0; x < 8; x++)
+							grid[y][x] = original.getGrid(x, y);
+					copy.restore(grid, original.getCurrentPiece(), original.getCurrentPiecePosition(),
+							original.getRowsCleared());
+					assertEquals(original.getZobristHash(), copy.getZobristHash());
+				}
+
+				Board.Action action = actions[random.nextInt(actions.length - 1)];
+				assertEquals(original.move(action), copy.move(action));
+				assertEquals(original, copy);
+				assertEquals(original.getRowsCleared(), copy.getRowsCleared());
+				assertEquals(original.getMaxHeight(), copy.getMaxHeight());
+			}
+		}
+	}
+
+	@Test
+	public void testBadRestoreChangesNothing() {
+		for(Board board : new Board[] { new TetrisBoard(8, 20), new BitTetrisBoard(8, 20) }) {
+			Piece piece = new TetrisPiece(Piece.PieceType.SQUARE);
+			board.nextPiece(piece, new Point(3, 16));
+			board.move(Board.Action.DROP);
+			board.nextPiece(piece, new Point(3, 16));
+			Board before = board.testMove(Board.Action.NOTHING);
+
+			// a piece overlapping the new grid must be refused before the grid is taken
+			Piece.PieceType[][] grid = new Piece.PieceType[20][8];
+			grid[17][4] = Piece.PieceType.T;
+			try {
+				board.restore(grid, piece, new Point(3, 16), 0);
+				fail("Restored a piece on top of the grid");
+			} catch(IllegalArgumentException e) {
+				// expected
+			}
+			assertEquals(before, board);
+			for(int y = 0; y < 20; y++)
+				for(int x = 0; x < 8; x++)
+					assertEquals(before.getGrid(x, y), board.getGrid(x, y));
+			assertEquals(before.getMaxHeight(), board.getMaxHeight());
+			board.undo();
+			assertNull(board.getCurrentPiece());
+		}
+	}
+
+	// Plays the recorded actions one by one up to the given move
+	private HeadlessTetris replayTo(Path file, long move) throws IOException {
+		try(ReplayReader reader = new ReplayReader(file)) {
+			HeadlessTetris game = new HeadlessTetris(new TetrisBoard(reader.getWidth(), reader.getHeight()),
+					null, reader.getSeed());
+			while(game.getMoves() < move)
+				game.play(reader.next());
+			return game;
+		}
+	}
+}
@@ -169,6 +169,14 @@ public class RotationTest {
 		assertEquals(hs, body);
 	}
 
+	@Test
+	public void testRowMasks() {
+		int[] masks = new int[height];
+		for (Point p : body)
+			masks[p.y] |= 1 << p.x;
+		assertArrayEquals(masks, piece.getRowMasks());
+	}
+
 	@Test
 	public void testSkirt() {
 		int[] testSkirt = piece.getSkirt();
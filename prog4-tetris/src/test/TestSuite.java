@@ -7,6 +7,23 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
     RotationTest.class,
+    BitTetrisBoardTest.class,
+    TetrisBoardTest.class,
+    UndoTest.class,
+    PlacementTest.class,
+    DropTest.class,
+    BeamBrainTest.class,
+    BrainTest.class,
+    CheeseBrainTest.class,
+    HeadlessTetrisTest.class,
+    BatchSimulatorTest.class,
+    BoardListenerTest.class,
+    BrainWorkerTest.class,
+    DirtyRegionTest.class,
+    ReplayTest.class,
+    PositionTest.class,
+    DatasetExporterTest.class,
+    PieceSourceTest.class,
 })
 
 public class TestSuite {
@@ -0,0 +1,175 @@
+package test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import assignment.*;
+import java.awt.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class TetrisBoardTest {
+
+	private static final int WIDTH = 10, HEIGHT = 24;
+
+	private static final Board.Action[] ACTIONS = {
+		Board.Action.LEFT, Board.Action.RIGHT, Board.Action.DOWN, Board.Action.DROP,
+		Board.Action.CLOCKWISE, Board.Action.COUNTERCLOCKWISE, Board.Action.NOTHING
+	};
+
+	private Board boardWith(Piece.PieceType type) {
+		Board board = new TetrisBoard(WIDTH, HEIGHT);
+		board.nextPiece(new TetrisPiece(type), new Point(3, HEIGHT - 4));
+		return board;
+	}
+
+	@Test
+	public void testPositionFollowsMoves() {
+		Board board = boardWith(Piece.PieceType.T);
+		assertEquals(new Point(3, 20), board.getCurrentPiecePosition());
+
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.LEFT));
+		assertEquals(new Point(2, 20), board.getCurrentPiecePosition());
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.DOWN));
+		assertEquals(new Point(2, 19), board.getCurrentPiecePosition());
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.RIGHT));
+		assertEquals(new Point(3, 19), board.getCurrentPiecePosition());
+
+		// in open space the first kick, which doesn't move the piece, always fits
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.CLOCKWISE));
+		assertEquals(new Point(3, 19), board.getCurrentPiecePosition());
+
+		assertEquals(Board.Result.SUCCESS, board.move(Board.Action.DROP));
+		assertNull(board.getCurrentPiecePosition());
+	}
+
+	@Test
+	public void testBlockedMoveKeepsPosition() {
+		Board board = boardWith(Piece.PieceType.SQUARE);
+		while (board.move(Board.Action.LEFT) == Board.Result.SUCCESS);
+		Point wall = board.getCurrentPiecePosition();
+		assertEquals(Board.Result.OUT_BOUNDS, board.move(Board.Action.LEFT));
+		assertEquals(wall, board.getCurrentPiecePosition());
+	}
+
+	@Test
+	public void testPositionIsACopy() {
+		Board board = boardWith(Piece.PieceType.STICK);
+		Board same = boardWith(Piece.PieceType.STICK);
+		board.getCurrentPiecePosition().translate(2, -5);
+		assertEquals(new Point(3, 20), board.getCurrentPiecePosition());
+		assertEquals(same, board);
+	}
+
+	@Test
+	public void testCopiesMoveSeparately() {
+		Board board = boardWith(Piece.PieceType.LEFT_L);
+		Board moved = board.testMove(Board.Action.RIGHT);
+		moved.move(Board.Action.DOWN);
+		assertEquals(new Point(3, 20), board.getCurrentPiecePosition());
+		assertEquals(new Point(4, 19), moved.getCurrentPiecePosition());
+	}
+
+	// Makes a random move, bringing in a new piece when there isn't one; false once the board tops out
+	private boolean randomMove(Board board, Random random) {
+		if (board.getCurrentPiece() == null) {
+			Piece piece = new TetrisPiece(Piece.PieceType.values()[random.nextInt(Piece.PieceType.values().length)]);
+			try {
+				board.nextPiece(piece, new Point(WIDTH / 2 - 1, HEIGHT - 4));
+			} catch (IllegalArgumentException e) {
+				return false;
+			}
+		}
+		board.move(ACTIONS[random.nextInt(ACTIONS.length)]);
+		return true;
+	}
+
+	private void assertSameGrid(Board expected, Board actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+		for (int y = 0; y < HEIGHT; y++)
+			for (int x = 0; x < WIDTH; x++)
+				assertEquals(expected.getGrid(x, y), actual.getGrid(x, y));
+	}
+
+	@Test
+	public void testCopyingLeavesSourceAlone() {
+		// the same game twice, one board copied before every move and its copies played on afterwards
+		Random random = new Random(8), twin = new Random(8), copyMoves = new Random(9);
+		Board copied = new TetrisBoard(WIDTH, HEIGHT), control = new TetrisBoard(WIDTH, HEIGHT);
+		Board copy = null;
+		for (int step = 0; step < 3000; step++) {
+			Board next = copied.testMove(Board.Action.NOTHING);
+			boolean playing = randomMove(copied, random);
+			assertEquals(playing, randomMove(control, twin));
+			if (!playing)
+				break;
+			assertSameGrid(control, copied);
+
+			// writing to rows the copies share with the source must not reach the source
+			if (copy != null)
+				for (int i = 0; i < 4; i++)
+					randomMove(copy, copyMoves);
+			next.move(Board.Action.DROP);
+			next.move(Board.Action.NOTHING);
+			assertSameGrid(control, copied);
+			copy = next;
+		}
+	}
+
+	@Test
+	public void testPlayingLeavesCopiesAlone() {
+		// the other way round: a copy keeps its grid while the board it was copied from plays on
+		Random random = new Random(10);
+		Board source = new TetrisBoard(WIDTH, HEIGHT);
+		for (int step = 0; step < 3000; step++) {
+			Board copy = source.testMove(Board.Action.NOTHING);
+			Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT][WIDTH];
+			for (int y = 0; y < HEIGHT; y++)
+				for (int x = 0; x < WIDTH; x++)
+					grid[y][x] = copy.getGrid(x, y);
+			if (!randomMove(source, random))
+				break;
+			for (int y = 0; y < HEIGHT; y++)
+				for (int x = 0; x < WIDTH; x++)
+					assertEquals(grid[y][x], copy.getGrid(x, y));
+		}
+	}
+
+	@Test
+	public void testConcurrentCopies() throws Exception {
+		// the same position twice, so the copies share no rows with the one kept for comparison
+		Board board = new TetrisBoard(WIDTH, HEIGHT), untouched = new TetrisBoard(WIDTH, HEIGHT);
+		Random random = new Random(3), twin = new Random(3);
+		for (int i = 0; i < 40; i++) {
+			randomMove(board, random);
+			randomMove(untouched, twin);
+		}
+
+		// every thread copies the same board and plays its own game on the copy
+		java.util.List<Callable<Board>> games = new ArrayList<>();
+		for (int seed = 0; seed < 16; seed++) {
+			long gameSeed = seed;
+			games.add(() -> {
+				Board game = board.testMove(Board.Action.NOTHING);
+				Random moves = new Random(gameSeed);
+				for (int i = 0; i < 200 && randomMove(game, moves); i++);
+				return game;
+			});
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			java.util.List<Future<Board>> results = pool.invokeAll(games);
+			for (int seed = 0; seed < games.size(); seed++) {
+				Board expected = untouched.testMove(Board.Action.NOTHING);
+				Random moves = new Random(seed);
+				for (int i = 0; i < 200 && randomMove(expected, moves); i++);
+				assertSameGrid(expected, results.get(seed).get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertSameGrid(untouched, board);
+	}
+}
@@ -0,0 +1,183 @@
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import assignment.*;
+import java.awt.*;
+
+@RunWith(Parameterized.class)
+public class UndoTest {
+
+	private static final int WIDTH = 6, HEIGHT = 16;
+
+	private Class<? extends Board> boardClass;
+
+	public UndoTest(Class<? extends Board> boardClass) {
+		this.boardClass = boardClass;
+	}
+
+	@Parameters
+	public static Collection<Object[]> getTestData() {
+		return Arrays.asList(new Object[][] { { TetrisBoard.class }, { BitTetrisBoard.class } });
+	}
+
+	private Board newBoard() throws Exception {
+		return boardClass.getConstructor(int.class, int.class).newInstance(WIDTH, HEIGHT);
+	}
+
+	private Point spawn(Piece piece) {
+		return new Point(WIDTH / 2 - piece.getWidth() / 2, HEIGHT - 4);
+	}
+
+	// Replays a log of pieces and actions onto a fresh board
+	private Board replay(java.util.List<Object> log) throws Exception {
+		Board board = newBoard();
+		for (Object entry : log) {
+			if (entry instanceof Piece)
+				board.nextPiece((Piece) entry, spawn((Piece) entry));
+			else
+				board.move((Board.Action) entry);
+		}
+		return board;
+	}
+
+	private void assertSameState(Board expected, Board actual) {
+		assertTrue(expected.equals(actual));
+		assertEquals(expected.getLastAction(), actual.getLastAction());
+		assertEquals(expected.getLastResult(), actual.getLastResult());
+		assertEquals(expected.getRowsCleared(), actual.getRowsCleared());
+		assertEquals(expected.getMaxHeight(), actual.getMaxHeight());
+		for (int x = 0; x < WIDTH; x++) {
+			assertEquals(expected.getColumnHeight(x), actual.getColumnHeight(x));
+			for (int y = 0; y < HEIGHT; y++)
+				assertEquals(expected.getGrid(x, y), actual.getGrid(x, y));
+		}
+		for (int y = 0; y < HEIGHT; y++)
+			assertEquals(expected.getRowWidth(y), actual.getRowWidth(y));
+	}
+
+	@Test
+	public void testUndoMatchesReplay() throws Exception {
+		Random random = new Random(3);
+		Piece.PieceType[] types = Piece.PieceType.values();
+		Board.Action[] actions = { Board.Action.LEFT, Board.Action.RIGHT, Board.Action.DOWN, Board.Action.DROP,
+				Board.Action.CLOCKWISE, Board.Action.COUNTERCLOCKWISE };
+		java.util.List<Object> log = new ArrayList<>();
+		Board board = newBoard();
+
+		for (int step = 0; step < 3000; step++) {
+			if (!log.isEmpty() && random.nextInt(4) == 0) {
+				// roll back a few changes and check against a board that never made them
+				int undos = 1 + random.nextInt(Math.min(log.size(), 8));
+				for (int i = 0; i < undos; i++) {
+					board.undo();
+					log.remove(log.size() - 1);
+				}
+				assertSameState(replay(log), board);
+			} else if (board.getCurrentPiece() == null) {
+				Piece piece = new TetrisPiece(types[random.nextInt(types.length)]);
+				try {
+					board.nextPiece(piece, spawn(piece));
+				} catch (IllegalArgumentException e) {
+					return;
+				}
+				log.add(piece);
+			} else {
+				Board.Action action = actions[random.nextInt(actions.length)];
+				board.move(action);
+				log.add(action);
+			}
+		}
+	}
+
+	// Hashes the board's state from scratch by restoring it onto a fresh board
+	private long hashFromScratch(Board board) throws Exception {
+		Piece.PieceType[][] grid = new Piece.PieceType[HEIGHT][WIDTH];
+		for (int y = 0; y < HEIGHT; y++)
+			for (int x = 0; x < WIDTH; x++)
+				grid[y][x] = board.getGrid(x, y);
+		Board fresh = newBoard();
+		fresh.restore(grid, board.getCurrentPiece(), board.getCurrentPiecePosition(), 0);
+		return fresh.getZobristHash();
+	}
+
+	@Test
+	public void testHashMatchesFromScratch() throws Exception {
+		Random random = new Random(11);
+		Piece.PieceType[] types = Piece.PieceType.values();
+		Board.Action[] actions = { Board.Action.LEFT, Board.Action.RIGHT, Board.Action.DOWN, Board.Action.DROP,
+				Board.Action.CLOCKWISE, Board.Action.COUNTERCLOCKWISE };
+		// mostly play well, so rows actually get cleared
+		Brain brain = new LameBrain();
+		Board board = newBoard();
+		int changes = 0, mostCleared = 0;
+
+		for (int step = 0; step < 3000; step++) {
+			if (changes > 0 && random.nextInt(5) == 0) {
+				for (int undos = 1 + random.nextInt(Math.min(changes, 6)); undos > 0; undos--, changes--)
+					board.undo();
+			} else if (board.getCurrentPiece() == null) {
+				Piece piece = new TetrisPiece(types[random.nextInt(types.length)]);
+				try {
+					board.nextPiece(piece, spawn(piece));
+				} catch (IllegalArgumentException e) {
+					break;
+				}
+				changes++;
+			} else {
+				board.move(random.nextInt(8) == 0 ? actions[random.nextInt(actions.length)] : brain.nextMove(board));
+				changes++;
+			}
+			assertEquals(hashFromScratch(board), board.getZobristHash());
+			mostCleared = Math.max(mostCleared, board.getRowsCleared());
+		}
+		// make sure clears (and undoing them) were covered
+		assertTrue(mostCleared > 0);
+	}
+
+	@Test
+	public void testUndoStopsAtHistoryLimit() throws Exception {
+		// shuffling one piece back and forth never tops out, so the history fills and then wraps
+		Board.Action[] actions = { Board.Action.NOTHING, Board.Action.LEFT, Board.Action.RIGHT };
+		java.util.List<Object> log = new ArrayList<>();
+		Board board = newBoard();
+		Piece piece = new TetrisPiece(Piece.PieceType.T);
+		board.nextPiece(piece, spawn(piece));
+		log.add(piece);
+		for (int step = 0; step < 1500; step++) {
+			board.move(actions[step % actions.length]);
+			log.add(actions[step % actions.length]);
+		}
+
+		// only the last 1024 changes can be undone
+		for (int i = 0; i < 1024; i++) {
+			board.undo();
+			log.remove(log.size() - 1);
+			if (i % 128 == 0 || i >= 1020)
+				assertSameState(replay(log), board);
+		}
+		try {
+			board.undo();
+			fail("Undid past the history limit");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertSameState(replay(log), board);
+
+		// the history starts over from here
+		board.move(Board.Action.LEFT);
+		board.undo();
+		assertSameState(replay(log), board);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNothingToUndo() throws Exception {
+		newBoard().undo();
+	}
+}